@@ -0,0 +1,108 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.BusyCalendar;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.sps.VersionedEventStore;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of {@code FindMeetingQuery.query} on synthetic calendars of 10^2, 10^4
+ * and 10^6 events, for each request shape and engine. Each operation answers one request; the
+ * requests are cycled through so that no single request dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FindMeetingQueryBenchmark {
+  /** The calendar implementations that can be benchmarked. */
+  public enum CalendarKind {
+    /** A snapshot of a {@code VersionedEventStore}, which is what the servlets query. */
+    SNAPSHOT,
+    /** The plain list of events, scanned by {@code query(Collection, MeetingRequest)}. */
+    EVENT_SCAN
+  }
+
+  // Must be a power of two, see nextRequest().
+  private static final int REQUEST_COUNT = 256;
+
+  @Param({"100", "10000", "1000000"})
+  public int eventCount;
+
+  @Param
+  public SyntheticCalendar.RequestShape shape;
+
+  @Param
+  public FindMeetingQuery.Engine engine;
+
+  @Param
+  public CalendarKind calendar;
+
+  private List<Event> events;
+  private BusyCalendar busyCalendar;
+  private MeetingRequest[] requests;
+  private FindMeetingQuery query;
+  private int nextRequest;
+
+  @Setup
+  public void setUp() {
+    SyntheticCalendar generator = new SyntheticCalendar(eventCount, 42);
+    events = generator.generateEvents(eventCount);
+    // queryMaximizingOptionalAttendance() only takes a calendar, so it reads the snapshot under
+    // EVENT_SCAN too.
+    busyCalendar = new VersionedEventStore(events).snapshot();
+    requests = generator.generateRequests(shape, REQUEST_COUNT);
+    query = new FindMeetingQuery(engine);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    if (calendar == CalendarKind.EVENT_SCAN) {
+      return query.query(events, nextRequest());
+    }
+    return query.query(busyCalendar, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> queryMaximizingOptionalAttendance() {
+    return query.queryMaximizingOptionalAttendance(busyCalendar, nextRequest());
+  }
+
+  private MeetingRequest nextRequest() {
+    MeetingRequest request = requests[nextRequest];
+    nextRequest = (nextRequest + 1) & (REQUEST_COUNT - 1);
+    return request;
+  }
+}
@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates reproducible synthetic calendars and meeting requests. Attendees are drawn from a Zipf
+ * distribution, so a few people are in many events and most people are in few, as in a real
+ * company calendar.
+ */
+public final class SyntheticCalendar {
+  /** The kinds of meeting requests that are benchmarked. */
+  public enum RequestShape {
+    /** A handful of mandatory attendees and a short meeting. */
+    MANDATORY_ONLY,
+    /** Two mandatory attendees and many optional ones. */
+    OPTIONAL_HEAVY,
+    /** A few mandatory attendees and a meeting of several hours. */
+    LONG_DURATION
+  }
+
+  private static final double ZIPF_EXPONENT = 1.1;
+  private static final int[] EVENT_DURATIONS = {15, 30, 30, 30, 60, 60, 90, 120};
+
+  private final Random random;
+  private final int peopleCount;
+  // cumulativeWeights[i] is the probability of drawing one of the first i + 1 people.
+  private final double[] cumulativeWeights;
+
+  /**
+   * Creates a generator for a calendar of {@code eventCount} events. The number of people grows
+   * with the number of events.
+   */
+  public SyntheticCalendar(int eventCount, long seed) {
+    this.random = new Random(seed);
+    this.peopleCount = Math.max(50, Math.min(eventCount / 10, 100_000));
+    this.cumulativeWeights = new double[peopleCount];
+    double total = 0;
+    for (int i = 0; i < peopleCount; i++) {
+      total += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+      cumulativeWeights[i] = total;
+    }
+    for (int i = 0; i < peopleCount; i++) {
+      cumulativeWeights[i] /= total;
+    }
+  }
+
+  /** Returns {@code count} events spread over the day, mostly during working hours. */
+  public List<Event> generateEvents(int count) {
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int duration = EVENT_DURATIONS[random.nextInt(EVENT_DURATIONS.length)];
+      int start;
+      if (random.nextInt(10) < 8) {
+        // Working hours, on quarter hours.
+        start = TimeRange.getTimeInMinutes(8, 0) + 15 * random.nextInt(40);
+      } else {
+        start = random.nextInt(TimeRange.WHOLE_DAY.duration() - duration);
+      }
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          drawPeople(1 + random.nextInt(random.nextInt(8) + 1))));
+    }
+    return events;
+  }
+
+  /** Returns {@code count} meeting requests of the given shape. */
+  public MeetingRequest[] generateRequests(RequestShape shape, int count) {
+    MeetingRequest[] requests = new MeetingRequest[count];
+    for (int i = 0; i < count; i++) {
+      switch (shape) {
+        case OPTIONAL_HEAVY:
+          requests[i] = new MeetingRequest(drawPeople(2), 30);
+          for (String person : drawPeople(50)) {
+            requests[i].addOptionalAttendee(person);
+          }
+          break;
+        case LONG_DURATION:
+          requests[i] = new MeetingRequest(drawPeople(3), 60 * (4 + random.nextInt(5)));
+          break;
+        case MANDATORY_ONLY:
+        default:
+          requests[i] = new MeetingRequest(drawPeople(2 + random.nextInt(5)), 30);
+          break;
+      }
+    }
+    return requests;
+  }
+
+  /** Draws up to {@code count} different people from the Zipf distribution. */
+  private Set<String> drawPeople(int count) {
+    Set<String> people = new HashSet<>();
+    for (int i = 0; i < count; i++) {
+      int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+      if (index < 0) {
+        index = -index - 1;
+      }
+      people.add("Person " + Math.min(index, peopleCount - 1));
+    }
+    return people;
+  }
+}
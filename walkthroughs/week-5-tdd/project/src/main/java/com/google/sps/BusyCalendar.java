@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A source of the times at which people are busy, which {@code FindMeetingQuery} searches for free
+ * time.
+ */
+public interface BusyCalendar {
+  /**
+   * Returns the version of the calendar, which changes whenever its busy times may have changed.
+   * Read-only calendars never change and keep the default version of 0.
+   */
+  default long getVersion() {
+    return 0;
+  }
+
+  /**
+   * Returns the times at which at least one of {@code attendees} is busy and that overlap
+   * {@code window}. The times may be in any order and may overlap each other.
+   */
+  List<TimeRange> getBusyTimes(Collection<String> attendees, TimeRange window);
+
+  /**
+   * Appends the same times as {@link #getBusyTimes} to {@code busyTimes}. Implementations should
+   * override this to avoid creating a {@code TimeRange} per busy time.
+   */
+  default void addBusyTimes(
+      Collection<String> attendees, TimeRange window, IntervalList busyTimes) {
+    for (TimeRange busyTime : getBusyTimes(attendees, window)) {
+      busyTimes.add(busyTime.start(), busyTime.end());
+    }
+  }
+
+  /**
+   * Returns a new bitmap of the minutes of the day in which at least one of {@code attendees} is
+   * busy. Bit {@code i} stands for the minute starting at {@code i}.
+   */
+  default BitSet getBusyMinutes(Collection<String> attendees) {
+    BitSet busyMinutes = new BitSet(TimeRange.WHOLE_DAY.duration());
+    for (TimeRange busyTime : getBusyTimes(attendees, TimeRange.WHOLE_DAY)) {
+      // Only the part of the busy time within the day can be represented.
+      int start = Math.max(busyTime.start(), TimeRange.WHOLE_DAY.start());
+      int end = Math.min(busyTime.end(), TimeRange.WHOLE_DAY.end());
+      if (start < end) {
+        busyMinutes.set(start, end);
+      }
+    }
+    return busyMinutes;
+  }
+}
@@ -0,0 +1,43 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Merges busy time ranges into a time-ordered list without overlaps. The ranges are sorted once by
+ * their start time and then coalesced in a single linear sweep, so merging n ranges costs
+ * O(n log n) instead of rebuilding the merged list on every insert. The work is done on an
+ * {@code IntervalList}; callers on the query hot path use that list directly.
+ */
+public final class BusyIntervalMerger {
+  private BusyIntervalMerger() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the given ranges sorted by start time, with every pair of overlapping or touching
+   * ranges combined into one. The input collection is not modified.
+   */
+  public static List<TimeRange> merge(Collection<TimeRange> busyTimes) {
+    IntervalList intervals = new IntervalList(busyTimes.size());
+    for (TimeRange time : busyTimes) {
+      intervals.add(time.start(), time.end());
+    }
+    intervals.sortAndMerge();
+    return intervals.toTimeRanges();
+  }
+}
@@ -78,9 +78,9 @@ public final class Event {
 
   @Override
   public int hashCode() {
-    // For the hash code, just use the title. Most events "should" have different names and will
-    // mainly be used as a way to skip the costly {@code equals()} call.
-    return title.hashCode();
+    // Many events share a title (e.g. "Team Sync"), so the hash code covers every field. It is
+    // mainly used as a way to skip the costly {@code equals()} call.
+    return 31 * (31 * title.hashCode() + when.hashCode()) + attendees.hashCode();
   }
 
   @Override
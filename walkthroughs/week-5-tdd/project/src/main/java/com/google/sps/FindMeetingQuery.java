@@ -16,124 +16,407 @@ package com.google.sps;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 public final class FindMeetingQuery {
+  /** The algorithms that can be used to find the free time of the attendees. */
+  public enum Engine {
+    /** Sorts and merges the attendees' busy time ranges, then walks the gaps between them. */
+    INTERVAL_MERGE,
+    /**
+     * Combines the attendees' per-minute busy bitmaps with word-wide ORs, then scans the bitmap for
+     * runs of free minutes.
+     */
+    MINUTE_BITMAP
+  }
+
+  // Interval lists reused by the queries running on each thread, so that finding busy times does
+  // not allocate once the lists have grown to the size of a typical query.
+  private static final ThreadLocal<IntervalList[]> SCRATCH_INTERVALS =
+      ThreadLocal.withInitial(() -> new IntervalList[] {new IntervalList(), new IntervalList()});
+  // Scratch lists that an unusually large query grew past this many intervals are dropped after
+  // the query, so that one huge meeting does not keep its memory pinned to the thread for good.
+  private static final int MAX_SCRATCH_CAPACITY = 4096;
+
+  private final Engine engine;
+
+  /** Creates a query that uses the {@code INTERVAL_MERGE} engine. */
+  public FindMeetingQuery() {
+    this(Engine.INTERVAL_MERGE);
+  }
+
+  /**
+   * Creates a query that uses the given engine. Both engines return the same results, except
+   * around events without duration: {@code INTERVAL_MERGE} splits a free time at such an event,
+   * while {@code MINUTE_BITMAP} has no minute to mark for it and ignores it.
+   *
+   * @param engine The algorithm used to find free time. Must be non-null.
+   */
+  public FindMeetingQuery(Engine engine) {
+    if (engine == null) {
+      throw new IllegalArgumentException("engine cannot be null");
+    }
+
+    this.engine = engine;
+  }
+
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    // A single query reads each event once, so the events are scanned as they are. Indexing them
+    // would cost more than it saves; calendars that are reused, such as a snapshot of a
+    // VersionedEventStore, can be passed to query(BusyCalendar, ...) instead.
+    return query(new EventScan(events), request);
+  }
+
+  /**
+   * Same as {@link #query(Collection, MeetingRequest)}, but looks up busy times in a prebuilt
+   * calendar, such as a {@code VersionedEventStore.Snapshot}, so that the cost depends on the
+   * requested attendees only.
+   */
+  public Collection<TimeRange> query(BusyCalendar calendar, MeetingRequest request) {
     // If duration is longer than a day, no option for this case.
     if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
       return Arrays.asList();
     }
 
+    // When only the first few times are wanted, stop looking once they are found.
+    if (request.getLimit() > 0) {
+      List<TimeRange> availableTimes = new ArrayList<>(request.getLimit());
+      Iterator<TimeRange> iterator = iterator(calendar, request);
+      while (availableTimes.size() < request.getLimit() && iterator.hasNext()) {
+        availableTimes.add(iterator.next());
+      }
+      // Busy times are merged lazily as the gaps are found, so the two are measured together.
+      QueryMetrics.lap(QueryMetrics.Phase.FIND_GAPS);
+      return availableTimes;
+    }
+
+    long meetingDuration = request.getDuration();
+    Collection<String> mandatoryAttendees = request.getAttendees();
+    Collection<String> optionalAttendees = request.getOptionalAttendees();
+    // If there are time slots that both mandatory and optional attendees are available, return
+    // those time; otherwise, return time that fit just the mandatory attendees. The busy times of
+    // the mandatory attendees are computed once and the optional attendees are overlaid on top of
+    // them, so both answers come out of a single pass over the attendees' events.
+    switch (engine) {
+      case MINUTE_BITMAP:
+        return queryBusyMinutes(calendar, mandatoryAttendees, optionalAttendees, meetingDuration);
+      case INTERVAL_MERGE:
+      default:
+        return queryBusyTimes(calendar, mandatoryAttendees, optionalAttendees, meetingDuration);
+    }
+  }
+
+  /**
+   * Returns the same times as {@link #query(BusyCalendar, MeetingRequest)}, ignoring the limit of
+   * the request, one at a time in time order. Each time is only searched for when it is asked for,
+   * so callers that stop early skip the rest of the work.
+   */
+  public Iterator<TimeRange> iterator(BusyCalendar calendar, MeetingRequest request) {
+    // If duration is longer than a day, no option for this case.
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyIterator();
+    }
+
     long meetingDuration = request.getDuration();
     Collection<String> mandatoryAttendees = request.getAttendees();
     Collection<String> optionalAttendees = request.getOptionalAttendees();
+    // The iterators outlive this call, so they cannot use the scratch lists of the thread.
+    QueryMetrics.mark();
+    Iterator<TimeRange> mandatoryTimes;
+    Iterator<TimeRange> allTimes;
+    switch (engine) {
+      case MINUTE_BITMAP:
+        BitSet mandatoryBusyMinutes = calendar.getBusyMinutes(mandatoryAttendees);
+        QueryMetrics.lap(QueryMetrics.Phase.BUSY_TIMES);
+        mandatoryTimes = FreeTimeIterator.of(mandatoryBusyMinutes, meetingDuration);
+        if (optionalAttendees.isEmpty()) {
+          return mandatoryTimes;
+        }
+        BitSet allBusyMinutes = calendar.getBusyMinutes(optionalAttendees);
+        QueryMetrics.lap(QueryMetrics.Phase.BUSY_TIMES);
+        allBusyMinutes.or(mandatoryBusyMinutes);
+        QueryMetrics.lap(QueryMetrics.Phase.MERGE);
+        allTimes = FreeTimeIterator.of(allBusyMinutes, meetingDuration);
+        break;
+      case INTERVAL_MERGE:
+      default:
+        IntervalList busyTimes = new IntervalList();
+        getAttendeesUnavailableTimes(calendar, mandatoryAttendees, busyTimes);
+        QueryMetrics.lap(QueryMetrics.Phase.BUSY_TIMES);
+        mandatoryTimes = FreeTimeIterator.of(busyTimes, meetingDuration);
+        QueryMetrics.lap(QueryMetrics.Phase.MERGE);
+        if (optionalAttendees.isEmpty()) {
+          return mandatoryTimes;
+        }
+        getAttendeesUnavailableTimes(calendar, optionalAttendees, busyTimes);
+        QueryMetrics.lap(QueryMetrics.Phase.BUSY_TIMES);
+        allTimes = FreeTimeIterator.of(busyTimes, meetingDuration);
+        QueryMetrics.lap(QueryMetrics.Phase.MERGE);
+        break;
+    }
+    // Only the first time that fits everyone has to be found to know which answer applies.
+    return allTimes.hasNext() ? allTimes : mandatoryTimes;
+  }
+
+  /**
+   * Returns the best meetings of exactly the requested duration, best first by {@code scorer}, out
+   * of the meetings that start every {@code step} minutes within the times of
+   * {@link #query(BusyCalendar, MeetingRequest)}. As many meetings as the limit of the request are
+   * returned, or every candidate if there is no limit.
+   */
+  public List<TimeRange> queryRanked(
+      BusyCalendar calendar, MeetingRequest request, SlotScorer scorer, int step) {
+    if (step <= 0) {
+      throw new IllegalArgumentException("step must be positive");
+    }
+
+    if (request.getLimit() > 0) {
+      return SlotRanker.topK(
+          iterator(calendar, request), request.getDuration(), step, request.getLimit(), scorer);
+    }
+    // Every candidate is wanted, so sorting them once is cheaper than keeping them in a heap.
+    return SlotRanker.rankAll(iterator(calendar, request), request.getDuration(), step, scorer);
+  }
+
+  /**
+   * Returns the times of {@link #query(BusyCalendar, MeetingRequest)} paired with each room that
+   * has space for every mandatory and optional attendee and is free for the whole meeting, sorted
+   * by start and then by room name. Times are split wherever a room is busy.
+   *
+   * @param roomCalendar The calendar in which the rooms are busy under their names. May be the
+   *     same as {@code calendar}.
+   */
+  public List<RoomSlot> queryRooms(BusyCalendar calendar, MeetingRequest request,
+      BusyCalendar roomCalendar, Collection<Room> rooms) {
+    // The attendees' free times are found once and shared by every room.
+    IntervalList freeTimes = new IntervalList();
+    iterator(calendar, request).forEachRemaining(time -> freeTimes.add(time.start(), time.end()));
+    int attendeeCount = request.getAttendees().size() + request.getOptionalAttendees().size();
+    List<RoomSlot> slots = RoomSearch.findSlots(
+        freeTimes, request.getDuration(), attendeeCount, roomCalendar, rooms);
+    if (request.getLimit() > 0 && slots.size() > request.getLimit()) {
+      return new ArrayList<>(slots.subList(0, request.getLimit()));
+    }
+    return slots;
+  }
+
+  /**
+   * Returns the times that fit every mandatory attendee and the largest possible number of optional
+   * attendees. Unlike {@link #query(BusyCalendar, MeetingRequest)}, the optional attendees are not
+   * all dropped when no time fits every one of them.
+   */
+  public Collection<TimeRange> queryMaximizingOptionalAttendance(
+      BusyCalendar calendar, MeetingRequest request) {
+    // If duration is longer than a day, no option for this case.
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Arrays.asList();
+    }
+
+    // The sweep finds busy times and free times in one pass, so it is measured as a whole.
+    QueryMetrics.mark();
+    List<TimeRange> availableTimes = OptionalAttendanceSweep.query(calendar,
+        request.getAttendees(), request.getOptionalAttendees(), (int) request.getDuration());
+    QueryMetrics.lap(QueryMetrics.Phase.FIND_GAPS);
+    if (request.getLimit() > 0 && availableTimes.size() > request.getLimit()) {
+      return new ArrayList<>(availableTimes.subList(0, request.getLimit()));
+    }
+    return availableTimes;
+  }
+
+  /**
+   * Returns up to {@code limit} meeting times within the first {@code days} days of
+   * {@code calendar}, in time order. Unlike {@link #query(BusyCalendar, MeetingRequest)}, meetings
+   * may be longer than a day and the returned times may cross midnight. Optional attendees are
+   * handled the same way: they are only dropped when no time in the horizon fits them.
+   */
+  public List<TimeRange> queryHorizon(
+      HorizonCalendar calendar, MeetingRequest request, int days, int limit) {
+    long meetingDuration = request.getDuration();
+    Collection<String> mandatoryAttendees = request.getAttendees();
+    Collection<String> optionalAttendees = request.getOptionalAttendees();
+    if (optionalAttendees.isEmpty()) {
+      return calendar.getAvailableTimes(mandatoryAttendees, meetingDuration, days, limit);
+    }
+
     List<String> allAttendees = new ArrayList<>();
     allAttendees.addAll(mandatoryAttendees);
     allAttendees.addAll(optionalAttendees);
-    // If there are time slots that both mandatory and optional attendees are available, return
-    // those time; otherwise, return time that fit just the mandatory attendees.
-    List<TimeRange> availableTimes = getAvailableTimes(getNoOverlapTimes(getAttendeesUnavailableTimes(events, allAttendees)), meetingDuration);
+    List<TimeRange> availableTimes =
+        calendar.getAvailableTimes(allAttendees, meetingDuration, days, limit);
     if (!availableTimes.isEmpty()) {
       return availableTimes;
     } else {
-      return getAvailableTimes(getNoOverlapTimes(getAttendeesUnavailableTimes(events, mandatoryAttendees)), meetingDuration);
+      return calendar.getAvailableTimes(mandatoryAttendees, meetingDuration, days, limit);
     }
   }
 
-  /** Get a collection of all attendees' unavailable time ranges (due to other events). */
-  private List<TimeRange> getAttendeesUnavailableTimes(
-      Collection<Event> events, Collection<String> meetingAttendees) {
-    List<TimeRange> unavailableTimes = new ArrayList<>();
-    for (Event event : events) {
-      Collection<String> eventAttendees = event.getAttendees();
-      // If any attendee in the meeting joins that event as well, the time range of the event is
-      // added to the unavailableTimes collection.
-      if (!Collections.disjoint(meetingAttendees, eventAttendees)) {
-        unavailableTimes.add(event.getWhen());
+  /** Answer a request with the {@code INTERVAL_MERGE} engine. */
+  private List<TimeRange> queryBusyTimes(BusyCalendar calendar,
+      Collection<String> mandatoryAttendees, Collection<String> optionalAttendees, long duration) {
+    IntervalList[] scratch = SCRATCH_INTERVALS.get();
+    try {
+      return queryBusyTimes(calendar, mandatoryAttendees, optionalAttendees, duration,
+          scratch[0], scratch[1]);
+    } finally {
+      for (int i = 0; i < scratch.length; i++) {
+        if (scratch[i].capacity() > MAX_SCRATCH_CAPACITY) {
+          scratch[i] = new IntervalList();
+        }
       }
     }
-    return unavailableTimes;
   }
 
-  /** Return a collection of time ranges in the time order without any overlap among each other. */
-  private List<TimeRange> getNoOverlapTimes(List<TimeRange> unavailableTimes) {
-    // "noOverlapTimes" is guaranteed to be sorted and merged without overlap in this function,
-    // and it will keep being updated by "localNoOverlapTimes" when a new time is added
-    // from the initial unsorted "unavailableTimes" list (with some overlaps).
-    List<TimeRange> noOverlapTimes = new ArrayList<>();
-    for (TimeRange newTime : unavailableTimes) {
-      if (noOverlapTimes.isEmpty()) {
-        noOverlapTimes.add(newTime);
-        continue;
-      }
-      // Compare and combine the new time with any existing time range in collection in order.
-      List<TimeRange> localNoOverlapTimes = new ArrayList<>();
-      for (int i = 0; i < noOverlapTimes.size(); i++) {
-        TimeRange existingTime = noOverlapTimes.get(i);
-        // Case 1. Existing time is earlier than new time
-        if (existingTime.end() <= newTime.start()) {
-          localNoOverlapTimes.add(existingTime);
-        } else if (existingTime.start() >= newTime.end()) {
-          // Case 2. New time is earlier than existing time
-          localNoOverlapTimes.add(newTime);
-          localNoOverlapTimes.addAll(noOverlapTimes.subList(i, noOverlapTimes.size()));
-          break;
-        } else if (existingTime.contains(newTime)) {
-          // Case 3. Existing time contains new time
-          localNoOverlapTimes.addAll(noOverlapTimes.subList(i, noOverlapTimes.size()));
-          break;
-        } else if (newTime.contains(existingTime)) {
-          // Case 4. New time contains existing time
-        } else {
-          // Case 5. Overlap (no contain) exists between existing time and new time
-          newTime = TimeRange.fromStartEnd(Math.min(newTime.start(), existingTime.start()),
-              Math.max(newTime.end(), existingTime.end()), false);
-        }
-      }
-      // Check whether newTime has never been included because it is the last one.
-      if (localNoOverlapTimes.isEmpty()) {
-        localNoOverlapTimes.add(newTime);
-      } else {
-        if (localNoOverlapTimes.get(localNoOverlapTimes.size() - 1).end() < newTime.end()) {
-          localNoOverlapTimes.add(newTime);
-        }
-      }
-      noOverlapTimes = localNoOverlapTimes;
+  /** Answer a request with the {@code INTERVAL_MERGE} engine, using the given scratch lists. */
+  private List<TimeRange> queryBusyTimes(BusyCalendar calendar,
+      Collection<String> mandatoryAttendees, Collection<String> optionalAttendees, long duration,
+      IntervalList mandatoryBusyTimes, IntervalList allBusyTimes) {
+    mandatoryBusyTimes.clear();
+    QueryMetrics.mark();
+    getAttendeesUnavailableTimes(calendar, mandatoryAttendees, mandatoryBusyTimes);
+    QueryMetrics.lap(QueryMetrics.Phase.BUSY_TIMES);
+    getNoOverlapTimes(mandatoryBusyTimes, 0);
+    QueryMetrics.lap(QueryMetrics.Phase.MERGE);
+    if (optionalAttendees.isEmpty()) {
+      List<TimeRange> availableTimes = getAvailableTimes(mandatoryBusyTimes, duration);
+      QueryMetrics.lap(QueryMetrics.Phase.FIND_GAPS);
+      return availableTimes;
+    }
+
+    allBusyTimes.clear();
+    allBusyTimes.addAll(mandatoryBusyTimes);
+    getAttendeesUnavailableTimes(calendar, optionalAttendees, allBusyTimes);
+    QueryMetrics.lap(QueryMetrics.Phase.BUSY_TIMES);
+    getNoOverlapTimes(allBusyTimes, mandatoryBusyTimes.size());
+    QueryMetrics.lap(QueryMetrics.Phase.MERGE);
+    List<TimeRange> availableTimes = getAvailableTimes(allBusyTimes, duration);
+    if (availableTimes.isEmpty()) {
+      availableTimes = getAvailableTimes(mandatoryBusyTimes, duration);
+    }
+    QueryMetrics.lap(QueryMetrics.Phase.FIND_GAPS);
+    return availableTimes;
+  }
+
+  /** Answer a request with the {@code MINUTE_BITMAP} engine. */
+  private List<TimeRange> queryBusyMinutes(BusyCalendar calendar,
+      Collection<String> mandatoryAttendees, Collection<String> optionalAttendees, long duration) {
+    QueryMetrics.mark();
+    BitSet mandatoryBusyMinutes = calendar.getBusyMinutes(mandatoryAttendees);
+    QueryMetrics.lap(QueryMetrics.Phase.BUSY_TIMES);
+    if (optionalAttendees.isEmpty()) {
+      List<TimeRange> availableTimes = getAvailableTimes(mandatoryBusyMinutes, duration);
+      QueryMetrics.lap(QueryMetrics.Phase.FIND_GAPS);
+      return availableTimes;
+    }
+
+    BitSet allBusyMinutes = calendar.getBusyMinutes(optionalAttendees);
+    QueryMetrics.lap(QueryMetrics.Phase.BUSY_TIMES);
+    allBusyMinutes.or(mandatoryBusyMinutes);
+    QueryMetrics.lap(QueryMetrics.Phase.MERGE);
+    List<TimeRange> availableTimes = getAvailableTimes(allBusyMinutes, duration);
+    if (availableTimes.isEmpty()) {
+      availableTimes = getAvailableTimes(mandatoryBusyMinutes, duration);
+    }
+    QueryMetrics.lap(QueryMetrics.Phase.FIND_GAPS);
+    return availableTimes;
+  }
+
+  /** Add all attendees' unavailable time ranges (due to other events) to the given list. */
+  private void getAttendeesUnavailableTimes(BusyCalendar calendar,
+      Collection<String> meetingAttendees, IntervalList unavailableTimes) {
+    // Only the busy times of the meeting attendees that fall within the day are visited, instead
+    // of every event in the calendar. Very large meetings, such as all-hands, are split into
+    // shards that are searched and merged in parallel.
+    if (meetingAttendees.size() >= ShardedBusyUnion.PARALLEL_THRESHOLD) {
+      ShardedBusyUnion.addBusyTimes(calendar, meetingAttendees, unavailableTimes);
+    } else {
+      calendar.addBusyTimes(meetingAttendees, TimeRange.WHOLE_DAY, unavailableTimes);
+    }
+  }
+
+  /**
+   * Put the time ranges in the time order without any overlap among each other. The ranges before
+   * {@code mergedCount} must already be in that form, so only the ones after it are sorted.
+   */
+  private void getNoOverlapTimes(IntervalList unavailableTimes, int mergedCount) {
+    if (mergedCount == 0) {
+      unavailableTimes.sortAndMerge();
+    } else {
+      unavailableTimes.mergeFrom(mergedCount);
     }
-    return noOverlapTimes;
   }
 
   /** Get available times for meeting, given the unavailable time ranges and the meeting duration. */
-  // TODO: Instead of sorting and merging time slots (i.e. eliminating overlaps) at the same time in
-  // this function, I can sort first and then separately eliminate overlaps for the sorted time
-  // ranges. The time complexity can be thus reduced.
-  private List<TimeRange> getAvailableTimes(List<TimeRange> unavailableTimes, long duration) {
+  private List<TimeRange> getAvailableTimes(IntervalList unavailableTimes, long duration) {
+    // Gaps are compared as plain numbers, so a TimeRange is only created for each returned time.
     List<TimeRange> availableTimes = new ArrayList<>();
     int start = TimeRange.START_OF_DAY;
-    for (TimeRange eventTime : unavailableTimes) {
-      if (start < eventTime.start()) {
-        TimeRange meetingTime = TimeRange.fromStartEnd(start, eventTime.start(), false);
-        if (checkEnoughSpace(meetingTime, duration)) {
-          availableTimes.add(meetingTime);
-        }
+    for (int i = 0; i < unavailableTimes.size(); i++) {
+      if (start < unavailableTimes.start(i) && unavailableTimes.start(i) - start >= duration) {
+        availableTimes.add(TimeRange.fromStartEnd(start, unavailableTimes.start(i), false));
       }
-      start = eventTime.end();
+      start = unavailableTimes.end(i);
     }
     // Add the gap if the end time of the last event is not the end of the day.
-    if (start < TimeRange.END_OF_DAY + 1) {
-      TimeRange meetingTime = TimeRange.fromStartEnd(start, TimeRange.END_OF_DAY + 1, false);
-      if (checkEnoughSpace(meetingTime, duration)) {
-        availableTimes.add(meetingTime);
+    int dayEnd = TimeRange.END_OF_DAY + 1;
+    if (start < dayEnd && dayEnd - start >= duration) {
+      availableTimes.add(TimeRange.fromStartEnd(start, dayEnd, false));
+    }
+    return availableTimes;
+  }
+
+  /** Get available times for meeting, given the busy minutes of the day and meeting duration. */
+  private List<TimeRange> getAvailableTimes(BitSet busyMinutes, long duration) {
+    List<TimeRange> availableTimes = new ArrayList<>();
+    int dayEnd = TimeRange.END_OF_DAY + 1;
+    int start = busyMinutes.nextClearBit(TimeRange.START_OF_DAY);
+    while (start < dayEnd) {
+      int end = busyMinutes.nextSetBit(start);
+      if (end < 0 || end > dayEnd) {
+        end = dayEnd;
+      }
+      if (end - start >= duration) {
+        availableTimes.add(TimeRange.fromStartEnd(start, end, false));
       }
+      start = busyMinutes.nextClearBit(end);
     }
     return availableTimes;
   }
 
-  /** Check if a time range is not smaller than a given duration. */
-  private boolean checkEnoughSpace(TimeRange time, long duration) {
-    return time.contains(TimeRange.fromStartDuration(time.start(), (int) duration));
+  /** A calendar that scans a collection of events on every lookup, without any index. */
+  private static final class EventScan implements BusyCalendar {
+    private final Collection<Event> events;
+
+    EventScan(Collection<Event> events) {
+      this.events = events;
+    }
+
+    @Override
+    public List<TimeRange> getBusyTimes(Collection<String> attendees, TimeRange window) {
+      List<TimeRange> busyTimes = new ArrayList<>();
+      for (Event event : events) {
+        if (overlaps(event, window) && !Collections.disjoint(attendees, event.getAttendees())) {
+          busyTimes.add(event.getWhen());
+        }
+      }
+      return busyTimes;
+    }
+
+    @Override
+    public void addBusyTimes(
+        Collection<String> attendees, TimeRange window, IntervalList busyTimes) {
+      for (Event event : events) {
+        if (overlaps(event, window) && !Collections.disjoint(attendees, event.getAttendees())) {
+          busyTimes.add(event.getWhen().start(), event.getWhen().end());
+        }
+      }
+    }
+
+    private static boolean overlaps(Event event, TimeRange window) {
+      return event.getWhen().start() < window.end() && event.getWhen().end() > window.start();
+    }
   }
 }
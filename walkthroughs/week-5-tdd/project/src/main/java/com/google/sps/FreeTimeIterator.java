@@ -0,0 +1,175 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds the free times of the day that are long enough for a meeting one at a time, in time order.
+ * No work is done for times that are never asked for: busy times given as intervals are kept in a
+ * heap and only popped, in start order, up to the start of the next free time.
+ */
+abstract class FreeTimeIterator implements Iterator<TimeRange> {
+  private static final int DAY_END = TimeRange.END_OF_DAY + 1;
+
+  private final long duration;
+  private TimeRange next;
+  private boolean done;
+
+  private FreeTimeIterator(long duration) {
+    this.duration = duration;
+  }
+
+  /**
+   * Returns an iterator over the free times around {@code busyTimes}, which may be in any order
+   * and may overlap. The list is copied, so it can be reused right away.
+   */
+  static FreeTimeIterator of(IntervalList busyTimes, long duration) {
+    return new HeapIterator(busyTimes, duration);
+  }
+
+  /** Returns an iterator over the free times around the set bits of {@code busyMinutes}. */
+  static FreeTimeIterator of(BitSet busyMinutes, long duration) {
+    return new BitmapIterator(busyMinutes, duration);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (next == null && !done) {
+      long gap = nextGap();
+      if (gap < 0) {
+        done = true;
+      } else {
+        int start = (int) (gap >>> 32);
+        int end = (int) gap;
+        if (end - start >= duration) {
+          next = TimeRange.fromStartEnd(start, end, false);
+        }
+      }
+    }
+    return next != null;
+  }
+
+  @Override
+  public TimeRange next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    TimeRange result = next;
+    next = null;
+    return result;
+  }
+
+  /**
+   * Returns the next gap between busy times, packed as the start in the high and the end in the
+   * low 32 bits, or -1 once the day is over. Gaps of any length are returned.
+   */
+  abstract long nextGap();
+
+  private static long pack(int high, int low) {
+    return ((long) high << 32) | (low & 0xffffffffL);
+  }
+
+  /** Pops busy times from a binary min-heap ordered by start. */
+  private static final class HeapIterator extends FreeTimeIterator {
+    // Each busy time is packed with its start in the high bits, so heap order is start order.
+    private final long[] heap;
+    private int size;
+    // Everything before this minute has been handed out, either as busy or as part of a gap.
+    private int cursor = TimeRange.START_OF_DAY;
+
+    HeapIterator(IntervalList busyTimes, long duration) {
+      super(duration);
+      heap = new long[busyTimes.size()];
+      for (int i = 0; i < busyTimes.size(); i++) {
+        heap[i] = pack(busyTimes.start(i), busyTimes.end(i));
+      }
+      size = heap.length;
+      // Building the heap bottom-up takes linear time, unlike sorting.
+      for (int i = size / 2 - 1; i >= 0; i--) {
+        siftDown(i);
+      }
+    }
+
+    @Override
+    long nextGap() {
+      while (size > 0) {
+        long busyTime = heap[0];
+        heap[0] = heap[--size];
+        siftDown(0);
+        int start = (int) (busyTime >> 32);
+        int end = (int) busyTime;
+        // Every busy time that starts earlier has been popped, so the minutes between the cursor
+        // and this start are free.
+        int gapStart = cursor;
+        cursor = Math.max(cursor, end);
+        if (start > gapStart) {
+          return pack(gapStart, start);
+        }
+      }
+      if (cursor < DAY_END) {
+        // Add the gap if the end time of the last event is not the end of the day.
+        long gap = pack(cursor, DAY_END);
+        cursor = DAY_END;
+        return gap;
+      }
+      return -1;
+    }
+
+    private void siftDown(int index) {
+      long value = heap[index];
+      while (2 * index + 1 < size) {
+        int child = 2 * index + 1;
+        if (child + 1 < size && heap[child + 1] < heap[child]) {
+          child++;
+        }
+        if (value <= heap[child]) {
+          break;
+        }
+        heap[index] = heap[child];
+        index = child;
+      }
+      heap[index] = value;
+    }
+  }
+
+  /** Walks the runs of clear bits of a minute bitmap. */
+  private static final class BitmapIterator extends FreeTimeIterator {
+    private final BitSet busyMinutes;
+    private int start;
+
+    BitmapIterator(BitSet busyMinutes, long duration) {
+      super(duration);
+      this.busyMinutes = busyMinutes;
+      this.start = busyMinutes.nextClearBit(TimeRange.START_OF_DAY);
+    }
+
+    @Override
+    long nextGap() {
+      if (start >= DAY_END) {
+        return -1;
+      }
+      int end = busyMinutes.nextSetBit(start);
+      if (end < 0 || end > DAY_END) {
+        end = DAY_END;
+      }
+      long gap = pack(start, end);
+      start = busyMinutes.nextClearBit(end);
+      return gap;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A calendar spanning many days, for finding meeting times beyond a single day. Times are in
+ * minutes since the start of the first day of the horizon, so day {@code d} covers the minutes
+ * {@code [d * MINUTES_PER_DAY, (d + 1) * MINUTES_PER_DAY)}.
+ *
+ * <p>Each attendee's busy times are sharded by day and merged per day when the calendar is built.
+ * A search walks the days in order and stops as soon as it has found enough times, so it never
+ * materializes the busy times of the whole horizon. Calendars are read-only and can be shared
+ * between threads.
+ *
+ * <p>Recurring events are kept as rules, indexed by attendee, and only expanded into the days that
+ * a search visits.
+ */
+public final class HorizonCalendar {
+  public static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+  /**
+   * The longest horizon that can be searched, one year including a leap day. It keeps the cost of
+   * a search bounded and every time of the horizon well within an {@code int}.
+   */
+  public static final int MAX_DAYS = 366;
+
+  // attendee -> day -> the attendee's merged busy times within that day.
+  private final Map<String, Map<Integer, List<TimeRange>>> busyTimesByAttendeeAndDay =
+      new HashMap<>();
+  private final Map<String, List<RecurringEvent>> recurringEventsByAttendee = new HashMap<>();
+
+  /**
+   * Creates a new calendar.
+   *
+   * @param events The events of the horizon, with times in minutes since the start of the first
+   *     day. Events may span several days. Only their parts within the first {@code MAX_DAYS}
+   *     days are kept. Must be non-null.
+   */
+  public HorizonCalendar(Collection<Event> events) {
+    this(events, Collections.emptyList());
+  }
+
+  /**
+   * Creates a new calendar with both single and recurring events.
+   *
+   * @param events The events of the horizon, with times in minutes since the start of the first
+   *     day. Events may span several days. Only their parts within the first {@code MAX_DAYS}
+   *     days are kept. Must be non-null.
+   * @param recurringEvents The recurring events, which may repeat beyond the horizon. Must be
+   *     non-null.
+   */
+  public HorizonCalendar(Collection<Event> events, Collection<RecurringEvent> recurringEvents) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+
+    for (Event event : events) {
+      // Only the part of the event within the longest horizon can ever be searched, so the rest is
+      // dropped before the event is split, however long the event is.
+      int start = Math.max(event.getWhen().start(), 0);
+      int end = Math.min(event.getWhen().end(), MAX_DAYS * MINUTES_PER_DAY);
+      // Split the event at every midnight it crosses.
+      for (int day = start / MINUTES_PER_DAY; day * MINUTES_PER_DAY < end; day++) {
+        int dayStart = day * MINUTES_PER_DAY;
+        TimeRange dayPart = TimeRange.fromStartEnd(Math.max(start, dayStart),
+            Math.min(end, dayStart + MINUTES_PER_DAY), false);
+        for (String attendee : event.getAttendees()) {
+          busyTimesByAttendeeAndDay.computeIfAbsent(attendee, key -> new HashMap<>())
+              .computeIfAbsent(day, key -> new ArrayList<>())
+              .add(dayPart);
+        }
+      }
+    }
+    for (Map<Integer, List<TimeRange>> busyTimesByDay : busyTimesByAttendeeAndDay.values()) {
+      for (Map.Entry<Integer, List<TimeRange>> entry : busyTimesByDay.entrySet()) {
+        entry.setValue(Collections.unmodifiableList(BusyIntervalMerger.merge(entry.getValue())));
+      }
+    }
+
+    if (recurringEvents == null) {
+      throw new IllegalArgumentException(
+          "recurringEvents cannot be null. Use empty array instead.");
+    }
+
+    for (RecurringEvent recurringEvent : recurringEvents) {
+      for (String attendee : recurringEvent.getAttendees()) {
+        recurringEventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>())
+            .add(recurringEvent);
+      }
+    }
+  }
+
+  /**
+   * Returns the start of the given time of the given day in minutes since the start of the
+   * horizon.
+   */
+  public static int getTimeInMinutes(int day, int hours, int minutes) {
+    if (day < 0) {
+      throw new IllegalArgumentException("Day cannot be negative.");
+    }
+
+    return day * MINUTES_PER_DAY + TimeRange.getTimeInMinutes(hours, minutes);
+  }
+
+  /**
+   * Returns a read-only list of the merged busy times of {@code attendee} within {@code day},
+   * sorted by start time.
+   *
+   * @param day The day. Must be between 0 and {@code RecurringEvent.LAST_DAY}.
+   */
+  public List<TimeRange> getBusyTimes(String attendee, int day) {
+    if (day < 0 || day > RecurringEvent.LAST_DAY) {
+      throw new IllegalArgumentException("day must be between 0 and " + RecurringEvent.LAST_DAY);
+    }
+
+    Map<Integer, List<TimeRange>> busyTimesByDay = busyTimesByAttendeeAndDay.get(attendee);
+    List<TimeRange> busyTimes = busyTimesByDay == null ? null : busyTimesByDay.get(day);
+    if (busyTimes == null) {
+      busyTimes = Collections.emptyList();
+    }
+    List<RecurringEvent> recurringEvents = recurringEventsByAttendee.get(attendee);
+    if (recurringEvents == null) {
+      return busyTimes;
+    }
+
+    // Expand the recurring events into this day only, and merge them with the single events. The
+    // day is bounded, so its end fits in an int.
+    int dayStart = day * MINUTES_PER_DAY;
+    int dayEnd = dayStart + MINUTES_PER_DAY;
+    IntervalList allBusyTimes = new IntervalList();
+    for (TimeRange busyTime : busyTimes) {
+      allBusyTimes.add(busyTime.start(), busyTime.end());
+    }
+    TimeRange window = TimeRange.fromStartEnd(dayStart, dayEnd, false);
+    for (RecurringEvent recurringEvent : recurringEvents) {
+      recurringEvent.addOccurrences(window, 0, allBusyTimes);
+    }
+    allBusyTimes.sortAndMerge();
+    List<TimeRange> dayBusyTimes = new ArrayList<>(allBusyTimes.size());
+    for (int i = 0; i < allBusyTimes.size(); i++) {
+      // Occurrences may cross midnight, so only their part within the day is kept.
+      int start = Math.max(allBusyTimes.start(i), dayStart);
+      int end = Math.min(allBusyTimes.end(i), dayEnd);
+      if (start < end) {
+        dayBusyTimes.add(TimeRange.fromStartEnd(start, end, false));
+      }
+    }
+    return Collections.unmodifiableList(dayBusyTimes);
+  }
+
+  /**
+   * Returns, in time order, at most {@code limit} free time ranges of at least {@code duration}
+   * minutes in which none of {@code attendees} is busy, within the first {@code days} days. A
+   * free range may span several days.
+   *
+   * @param days The length of the horizon. Must be between 0 and {@code MAX_DAYS}.
+   */
+  public List<TimeRange> getAvailableTimes(
+      Collection<String> attendees, long duration, int days, int limit) {
+    if (days < 0 || days > MAX_DAYS) {
+      throw new IllegalArgumentException("days must be between 0 and " + MAX_DAYS);
+    }
+
+    List<TimeRange> availableTimes = new ArrayList<>();
+    if (limit <= 0) {
+      return availableTimes;
+    }
+
+    int freeStart = 0;
+    for (int day = 0; day < days; day++) {
+      List<TimeRange> dayBusyTimes = new ArrayList<>();
+      for (String attendee : attendees) {
+        dayBusyTimes.addAll(getBusyTimes(attendee, day));
+      }
+      for (TimeRange busyTime : BusyIntervalMerger.merge(dayBusyTimes)) {
+        if (busyTime.start() - freeStart >= duration && busyTime.start() > freeStart) {
+          availableTimes.add(TimeRange.fromStartEnd(freeStart, busyTime.start(), false));
+          if (availableTimes.size() == limit) {
+            return availableTimes;
+          }
+        }
+        freeStart = Math.max(freeStart, busyTime.end());
+      }
+    }
+    // Add the gap if the last busy time does not reach the end of the horizon. The end fits in an
+    // int, since the horizon is at most MAX_DAYS long.
+    int horizonEnd = days * MINUTES_PER_DAY;
+    if (horizonEnd - freeStart >= duration && horizonEnd > freeStart) {
+      availableTimes.add(TimeRange.fromStartEnd(freeStart, horizonEnd, false));
+    }
+    return availableTimes;
+  }
+}
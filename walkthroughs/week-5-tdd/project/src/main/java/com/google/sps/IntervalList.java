@@ -0,0 +1,220 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of [start, end) intervals stored in two parallel {@code int} arrays instead of
+ * as {@code TimeRange} objects. Sorting and merging happen in place, and a cleared list keeps its
+ * arrays, so a list that is reused across queries stops allocating once it has grown to the
+ * largest size needed. Lists are not thread-safe.
+ */
+public final class IntervalList {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  // Slices shorter than this are sorted with insertion sort.
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  private int[] starts;
+  private int[] ends;
+  private int size;
+
+  // Spare arrays that the merge of two sorted runs writes into before they are swapped in.
+  private int[] spareStarts = new int[0];
+  private int[] spareEnds = new int[0];
+
+  /** Creates an empty list. */
+  public IntervalList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /** Creates an empty list with room for {@code capacity} intervals. */
+  public IntervalList(int capacity) {
+    starts = new int[Math.max(capacity, 1)];
+    ends = new int[Math.max(capacity, 1)];
+  }
+
+  /** Returns the number of intervals in the list. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the number of intervals the list can hold before it has to grow. */
+  public int capacity() {
+    return starts.length;
+  }
+
+  /** Returns the start of the interval at {@code index}. */
+  public int start(int index) {
+    return starts[index];
+  }
+
+  /** Returns the exclusive end of the interval at {@code index}. */
+  public int end(int index) {
+    return ends[index];
+  }
+
+  /** Removes every interval, keeping the allocated arrays for reuse. */
+  public void clear() {
+    size = 0;
+  }
+
+  /** Appends the interval [start, end). */
+  public void add(int start, int end) {
+    if (size == starts.length) {
+      starts = Arrays.copyOf(starts, size * 2);
+      ends = Arrays.copyOf(ends, size * 2);
+    }
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  /** Appends every interval of {@code other}. */
+  public void addAll(IntervalList other) {
+    for (int i = 0; i < other.size; i++) {
+      add(other.starts[i], other.ends[i]);
+    }
+  }
+
+  /**
+   * Sorts the intervals by start and combines every pair of overlapping or touching intervals, so
+   * that the list becomes time-ordered without overlaps.
+   */
+  public void sortAndMerge() {
+    sort(0, size);
+    coalesce();
+  }
+
+  /**
+   * Sorts the intervals from {@code from} on and merges them into the intervals before
+   * {@code from}, which must already be sorted and merged. Only the new intervals are sorted; the
+   * two runs are then combined in one linear pass.
+   */
+  public void mergeFrom(int from) {
+    sort(from, size);
+    if (spareStarts.length < size) {
+      spareStarts = new int[starts.length];
+      spareEnds = new int[ends.length];
+    }
+    int left = 0;
+    int right = from;
+    int merged = 0;
+    while (left < from || right < size) {
+      // Take whichever of the two runs has the earlier next interval.
+      if (right == size || (left < from && starts[left] <= starts[right])) {
+        spareStarts[merged] = starts[left];
+        spareEnds[merged] = ends[left];
+        left++;
+      } else {
+        spareStarts[merged] = starts[right];
+        spareEnds[merged] = ends[right];
+        right++;
+      }
+      merged++;
+    }
+    int[] swap = starts;
+    starts = spareStarts;
+    spareStarts = swap;
+    swap = ends;
+    ends = spareEnds;
+    spareEnds = swap;
+    coalesce();
+  }
+
+  /** Returns the intervals as {@code TimeRange}s. */
+  public List<TimeRange> toTimeRanges() {
+    List<TimeRange> timeRanges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      timeRanges.add(TimeRange.fromStartEnd(starts[i], ends[i], false));
+    }
+    return timeRanges;
+  }
+
+  /** Combines overlapping or touching neighbours of the sorted list in one sweep. */
+  private void coalesce() {
+    if (size == 0) {
+      return;
+    }
+    int last = 0;
+    for (int i = 1; i < size; i++) {
+      if (starts[i] <= ends[last]) {
+        // The sorted order means that interval i can only extend the last one to the right.
+        ends[last] = Math.max(ends[last], ends[i]);
+      } else {
+        last++;
+        starts[last] = starts[i];
+        ends[last] = ends[i];
+      }
+    }
+    size = last + 1;
+  }
+
+  /** Sorts the slice [from, to) by start with an in-place quicksort. */
+  private void sort(int from, int to) {
+    while (to - from > INSERTION_SORT_THRESHOLD) {
+      int pivot = medianOfThree(starts[from], starts[(from + to) >>> 1], starts[to - 1]);
+      int low = from;
+      int high = to - 1;
+      while (low <= high) {
+        while (starts[low] < pivot) {
+          low++;
+        }
+        while (starts[high] > pivot) {
+          high--;
+        }
+        if (low <= high) {
+          swap(low++, high--);
+        }
+      }
+      // Recurse into the smaller side and loop on the larger one to bound the stack depth.
+      if (high - from < to - low) {
+        sort(from, high + 1);
+        from = low;
+      } else {
+        sort(low, to);
+        to = high + 1;
+      }
+    }
+    for (int i = from + 1; i < to; i++) {
+      int start = starts[i];
+      int end = ends[i];
+      int j = i - 1;
+      while (j >= from && starts[j] > start) {
+        starts[j + 1] = starts[j];
+        ends[j + 1] = ends[j];
+        j--;
+      }
+      starts[j + 1] = start;
+      ends[j + 1] = end;
+    }
+  }
+
+  private void swap(int i, int j) {
+    int start = starts[i];
+    starts[i] = starts[j];
+    starts[j] = start;
+    int end = ends[i];
+    ends[i] = ends[j];
+    ends[j] = end;
+  }
+
+  private static int medianOfThree(int a, int b, int c) {
+    return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+  }
+}
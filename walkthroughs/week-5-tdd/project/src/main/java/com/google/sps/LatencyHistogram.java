@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Counts values, such as latencies in nanoseconds, in buckets whose width grows with the value, so
+ * that percentiles can be read back to within about 6% at any scale. Recording is lock-free and
+ * takes a few atomic increments, so it can be done on every request from many threads at once.
+ */
+public final class LatencyHistogram {
+  // Each power of two is split into this many buckets, which bounds the relative error.
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  // Values below SUB_BUCKET_COUNT get a bucket each; every larger power of two gets
+  // SUB_BUCKET_COUNT buckets, up to 2^63.
+  private static final int BUCKET_COUNT =
+      SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /** Records {@code value}. Negative values are recorded as 0. */
+  public void record(long value) {
+    value = Math.max(value, 0);
+    counts.incrementAndGet(bucketOf(value));
+    max.accumulate(value);
+  }
+
+  /** Returns the number of values recorded. */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /** Returns the largest value recorded, or 0 if none has been. */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns a value that at least a {@code quantile} fraction of the recorded values are at most,
+   * rounded up to the end of its bucket, or 0 if no value has been recorded. Values recorded
+   * meanwhile may or may not be counted.
+   *
+   * @param quantile Between 0 and 1, such as 0.99 for the 99th percentile.
+   */
+  public long getValueAtQuantile(double quantile) {
+    if (quantile < 0 || quantile > 1) {
+      throw new IllegalArgumentException("quantile must be between 0 and 1");
+    }
+
+    // Read the buckets once, so that the rank and the walk agree on the counts.
+    long[] snapshot = new long[BUCKET_COUNT];
+    long count = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        // No value is above the largest one recorded, even if its bucket is wider.
+        return Math.min(highestValueOf(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = magnitude - SUB_BUCKET_BITS;
+    // The bits below the leading one pick the bucket within the power of two.
+    int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  private static long highestValueOf(int bucket) {
+    if (bucket < SUB_BUCKET_COUNT) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+    int subBucket = (bucket - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+    long next = (long) (SUB_BUCKET_COUNT + subBucket + 1) << shift;
+    // The last bucket ends at Long.MAX_VALUE, where the shift overflows.
+    return next <= 0 ? Long.MAX_VALUE : next - 1;
+  }
+}
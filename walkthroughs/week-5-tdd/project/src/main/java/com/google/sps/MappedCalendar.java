@@ -0,0 +1,354 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only calendar stored in a binary file that is memory-mapped rather than read into memory.
+ * Opening a calendar only checks its header, and queries read just the parts of the file they
+ * need, so a calendar of millions of events starts instantly and keeps no {@code Event} objects on
+ * the heap. Calendars can be shared between threads.
+ *
+ * <p>The file starts with a header of big-endian ints: a magic number, the format version, the
+ * number of attendees, the number of events, the number of (event, attendee) pairs and the lengths
+ * of the name and title sections. The sections follow as int columns:
+ *
+ * <ul>
+ *   <li>attendee name offsets, one per attendee plus an end offset;
+ *   <li>event title offsets, one per event plus an end offset;
+ *   <li>event starts, then event durations, with the events sorted by start;
+ *   <li>offsets into the event attendee IDs, one per event plus an end offset, and the IDs;
+ *   <li>offsets into the attendee event IDs, one per attendee plus an end offset, and the IDs;
+ * </ul>
+ *
+ * <p>and finally the UTF-8 attendee names, sorted by their bytes so that an attendee's ID is found
+ * with a binary search, and the UTF-8 event titles.
+ */
+public final class MappedCalendar implements BusyCalendar {
+  private static final int MAGIC = 0x43414c31; // "CAL1"
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_INTS = 7;
+
+  private final ByteBuffer buffer;
+  private final int attendeeCount;
+  private final int eventCount;
+
+  // Byte positions of the sections in the file.
+  private final int nameOffsets;
+  private final int titleOffsets;
+  private final int starts;
+  private final int durations;
+  private final int eventAttendeeOffsets;
+  private final int eventAttendeeIds;
+  private final int attendeeEventOffsets;
+  private final int attendeeEventIds;
+  private final int names;
+  private final int titles;
+
+  private MappedCalendar(ByteBuffer buffer) throws IOException {
+    if (buffer.capacity() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a calendar file");
+    }
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("Unsupported calendar file version: " + buffer.getInt(4));
+    }
+    this.buffer = buffer;
+    this.attendeeCount = buffer.getInt(8);
+    this.eventCount = buffer.getInt(12);
+    int pairCount = buffer.getInt(16);
+    int namesLength = buffer.getInt(20);
+    int titlesLength = buffer.getInt(24);
+
+    long position = HEADER_INTS * 4;
+    nameOffsets = (int) position;
+    position += 4L * (attendeeCount + 1);
+    titleOffsets = (int) position;
+    position += 4L * (eventCount + 1);
+    starts = (int) position;
+    position += 4L * eventCount;
+    durations = (int) position;
+    position += 4L * eventCount;
+    eventAttendeeOffsets = (int) position;
+    position += 4L * (eventCount + 1);
+    eventAttendeeIds = (int) position;
+    position += 4L * pairCount;
+    attendeeEventOffsets = (int) position;
+    position += 4L * (attendeeCount + 1);
+    attendeeEventIds = (int) position;
+    position += 4L * pairCount;
+    names = (int) position;
+    position += namesLength;
+    titles = (int) position;
+    position += titlesLength;
+    if (attendeeCount < 0 || eventCount < 0 || pairCount < 0 || namesLength < 0
+        || titlesLength < 0 || position != buffer.capacity()) {
+      throw new IOException("Corrupt calendar file");
+    }
+  }
+
+  /**
+   * Opens the calendar in {@code file}, which must have been written by {@link #write}.
+   */
+  public static MappedCalendar open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      return new MappedCalendar(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes {@code events} to {@code file} in the format read by {@link #open}, replacing the file
+   * if it exists.
+   */
+  public static void write(Collection<Event> events, Path file) throws IOException {
+    Event[] sortedEvents = events.toArray(new Event[0]);
+    Arrays.sort(sortedEvents, Comparator.comparingInt(event -> event.getWhen().start()));
+
+    Set<String> attendeeNames = new HashSet<>();
+    for (Event event : sortedEvents) {
+      attendeeNames.addAll(event.getAttendees());
+    }
+    byte[][] nameBytes = new byte[attendeeNames.size()][];
+    int attendeeCount = 0;
+    for (String name : attendeeNames) {
+      nameBytes[attendeeCount++] = name.getBytes(StandardCharsets.UTF_8);
+    }
+    Arrays.sort(nameBytes, MappedCalendar::compareBytes);
+    Map<String, Integer> idsByName = new HashMap<>();
+    for (int id = 0; id < attendeeCount; id++) {
+      idsByName.put(new String(nameBytes[id], StandardCharsets.UTF_8), id);
+    }
+
+    // Events are visited in start order, so every attendee's events come out sorted by start.
+    List<List<Integer>> eventsByAttendee = new ArrayList<>();
+    for (int id = 0; id < attendeeCount; id++) {
+      eventsByAttendee.add(new ArrayList<>());
+    }
+    byte[][] titleBytes = new byte[sortedEvents.length][];
+    int[][] attendeeIds = new int[sortedEvents.length][];
+    int pairCount = 0;
+    for (int i = 0; i < sortedEvents.length; i++) {
+      titleBytes[i] = sortedEvents[i].getTitle().getBytes(StandardCharsets.UTF_8);
+      attendeeIds[i] = new int[sortedEvents[i].getAttendees().size()];
+      int j = 0;
+      for (String attendee : sortedEvents[i].getAttendees()) {
+        int id = idsByName.get(attendee);
+        attendeeIds[i][j++] = id;
+        eventsByAttendee.get(id).add(i);
+      }
+      Arrays.sort(attendeeIds[i]);
+      pairCount += j;
+    }
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(attendeeCount);
+      out.writeInt(sortedEvents.length);
+      out.writeInt(pairCount);
+      out.writeInt(totalLength(nameBytes));
+      out.writeInt(totalLength(titleBytes));
+      writeOffsets(out, nameBytes);
+      writeOffsets(out, titleBytes);
+      for (Event event : sortedEvents) {
+        out.writeInt(event.getWhen().start());
+      }
+      for (Event event : sortedEvents) {
+        out.writeInt(event.getWhen().duration());
+      }
+      int offset = 0;
+      for (int[] eventAttendees : attendeeIds) {
+        out.writeInt(offset);
+        offset += eventAttendees.length;
+      }
+      out.writeInt(offset);
+      for (int[] eventAttendees : attendeeIds) {
+        for (int id : eventAttendees) {
+          out.writeInt(id);
+        }
+      }
+      offset = 0;
+      for (List<Integer> attendeeEvents : eventsByAttendee) {
+        out.writeInt(offset);
+        offset += attendeeEvents.size();
+      }
+      out.writeInt(offset);
+      for (List<Integer> attendeeEvents : eventsByAttendee) {
+        for (int event : attendeeEvents) {
+          out.writeInt(event);
+        }
+      }
+      for (byte[] bytes : nameBytes) {
+        out.write(bytes);
+      }
+      for (byte[] bytes : titleBytes) {
+        out.write(bytes);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of events in this calendar.
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Returns the number of different attendees in this calendar.
+   */
+  public int getAttendeeCount() {
+    return attendeeCount;
+  }
+
+  /**
+   * Returns the event at {@code index}, where events are numbered in start order from 0. The event
+   * is read from the file on every call.
+   */
+  public Event getEvent(int index) {
+    if (index < 0 || index >= eventCount) {
+      throw new IndexOutOfBoundsException("No event " + index);
+    }
+    Set<String> attendees = new HashSet<>();
+    int end = getInt(eventAttendeeOffsets, index + 1);
+    for (int i = getInt(eventAttendeeOffsets, index); i < end; i++) {
+      attendees.add(readString(names, nameOffsets, getInt(eventAttendeeIds, i)));
+    }
+    return new Event(readString(titles, titleOffsets, index),
+        TimeRange.fromStartDuration(getInt(starts, index), getInt(durations, index)), attendees);
+  }
+
+  @Override
+  public List<TimeRange> getBusyTimes(Collection<String> attendees, TimeRange window) {
+    IntervalList busyTimes = new IntervalList();
+    addBusyTimes(attendees, window, busyTimes);
+    return busyTimes.toTimeRanges();
+  }
+
+  @Override
+  public void addBusyTimes(
+      Collection<String> attendees, TimeRange window, IntervalList busyTimes) {
+    for (String attendee : attendees) {
+      int id = findAttendee(attendee);
+      if (id < 0) {
+        continue;
+      }
+      int end = getInt(attendeeEventOffsets, id + 1);
+      for (int i = getInt(attendeeEventOffsets, id); i < end; i++) {
+        int event = getInt(attendeeEventIds, i);
+        int eventStart = getInt(starts, event);
+        // The attendee's events are sorted by start, so none of the rest can overlap the window.
+        if (eventStart >= window.end()) {
+          break;
+        }
+        int eventEnd = eventStart + getInt(durations, event);
+        if (eventEnd > window.start()) {
+          busyTimes.add(eventStart, eventEnd);
+        }
+      }
+    }
+  }
+
+  /** Returns the ID of {@code attendee}, or -1 if they are not in this calendar. */
+  private int findAttendee(String attendee) {
+    byte[] key = attendee.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = attendeeCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int comparison = compareName(mid, key);
+      if (comparison < 0) {
+        low = mid + 1;
+      } else if (comparison > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /** Compares the name of attendee {@code id} with {@code key}, byte by byte. */
+  private int compareName(int id, byte[] key) {
+    int start = names + getInt(nameOffsets, id);
+    int length = getInt(nameOffsets, id + 1) - getInt(nameOffsets, id);
+    for (int i = 0; i < Math.min(length, key.length); i++) {
+      int comparison = Integer.compare(buffer.get(start + i) & 0xff, key[i] & 0xff);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return Integer.compare(length, key.length);
+  }
+
+  private String readString(int section, int offsets, int index) {
+    int start = getInt(offsets, index);
+    byte[] bytes = new byte[getInt(offsets, index + 1) - start];
+    ByteBuffer view = buffer.duplicate();
+    view.position(section + start);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int getInt(int column, int index) {
+    return buffer.getInt(column + 4 * index);
+  }
+
+  private static int compareBytes(byte[] a, byte[] b) {
+    for (int i = 0; i < Math.min(a.length, b.length); i++) {
+      int comparison = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return Integer.compare(a.length, b.length);
+  }
+
+  private static int totalLength(byte[][] strings) {
+    int length = 0;
+    for (byte[] bytes : strings) {
+      length += bytes.length;
+    }
+    return length;
+  }
+
+  private static void writeOffsets(DataOutputStream out, byte[][] strings) throws IOException {
+    int offset = 0;
+    for (byte[] bytes : strings) {
+      out.writeInt(offset);
+      offset += bytes.length;
+    }
+    out.writeInt(offset);
+  }
+}
@@ -39,6 +39,9 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // The most meeting times to return, or 0 to return all of them.
+  private int limit;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -67,6 +70,24 @@ public final class MeetingRequest {
     }
   }
 
+  /**
+   * Limits the answer to the first {@code limit} meeting times of the day, or lifts the limit if
+   * {@code limit} is 0.
+   */
+  public void setLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit cannot be negative");
+    }
+    this.limit = limit;
+  }
+
+  /**
+   * Returns the most meeting times to return, or 0 if all of them should be returned.
+   */
+  public int getLimit() {
+    return limit;
+  }
+
   /**
    * Returns the duration of the meeting in minutes.
    */
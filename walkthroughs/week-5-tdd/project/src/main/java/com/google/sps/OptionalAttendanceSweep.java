@@ -0,0 +1,142 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the meeting times that the largest number of optional attendees can join while every
+ * mandatory attendee is free.
+ *
+ * <p>Instead of trying subsets of the optional attendees, each busy range [a, b) of an attendee is
+ * turned into the range of meeting start minutes it blocks, [a - duration + 1, b). The endpoints of
+ * those ranges are bucketed per minute and swept once, which yields, for every possible start
+ * minute, the number of optional attendees that cannot join a meeting starting then. The cost is
+ * linear in the number of busy ranges plus the number of minutes in the day.
+ */
+final class OptionalAttendanceSweep {
+  private static final int MINUTES_IN_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private OptionalAttendanceSweep() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the time ranges in which a meeting of {@code duration} minutes can be attended by all
+   * mandatory attendees and by as many optional attendees as possible. Every {@code duration}-long
+   * meeting that fits in one of the returned ranges is missed by the same, smallest possible,
+   * number of optional attendees, although not necessarily by the same people.
+   */
+  static List<TimeRange> query(BusyCalendar calendar, Collection<String> mandatoryAttendees,
+      Collection<String> optionalAttendees, int duration) {
+    // A meeting without duration is treated as one minute long, so that it still has to fit into a
+    // free minute.
+    int length = Math.max(duration, 1);
+    int lastStart = MINUTES_IN_DAY - length;
+    if (lastStart < 0) {
+      return Collections.emptyList();
+    }
+
+    // blocked[i] is how many more attendees are blocked from minute i on than from minute i - 1.
+    int[] mandatoryBlocked = new int[MINUTES_IN_DAY + 1];
+    addBlockedStarts(
+        BusyIntervalMerger.merge(
+            calendar.getBusyTimes(mandatoryAttendees, TimeRange.WHOLE_DAY)),
+        length, mandatoryBlocked);
+    int[] optionalBlocked = new int[MINUTES_IN_DAY + 1];
+    for (String attendee : optionalAttendees) {
+      // Merge each attendee on their own so that they are counted at most once per start minute.
+      addBlockedStarts(
+          BusyIntervalMerger.merge(calendar.getBusyTimes(
+              Collections.singletonList(attendee), TimeRange.WHOLE_DAY)),
+          length, optionalBlocked);
+    }
+
+    // First sweep: the fewest optional attendees missing at any start the mandatory ones allow.
+    int fewestMissing = Integer.MAX_VALUE;
+    int mandatoryMissing = 0;
+    int optionalMissing = 0;
+    for (int start = 0; start <= lastStart; start++) {
+      mandatoryMissing += mandatoryBlocked[start];
+      optionalMissing += optionalBlocked[start];
+      if (mandatoryMissing == 0) {
+        fewestMissing = Math.min(fewestMissing, optionalMissing);
+      }
+    }
+    if (fewestMissing == Integer.MAX_VALUE) {
+      return Collections.emptyList();
+    }
+
+    // Second sweep: collect the runs of start minutes that reach that optimum.
+    List<TimeRange> bestTimes = new ArrayList<>();
+    int runStart = -1;
+    mandatoryMissing = 0;
+    optionalMissing = 0;
+    for (int start = 0; start <= lastStart; start++) {
+      mandatoryMissing += mandatoryBlocked[start];
+      optionalMissing += optionalBlocked[start];
+      boolean best = mandatoryMissing == 0 && optionalMissing == fewestMissing;
+      if (best && runStart < 0) {
+        runStart = start;
+      } else if (!best && runStart >= 0) {
+        bestTimes.add(TimeRange.fromStartEnd(runStart, start - 1 + length, false));
+        runStart = -1;
+      }
+    }
+    if (runStart >= 0) {
+      bestTimes.add(TimeRange.fromStartEnd(runStart, lastStart + length, false));
+    }
+    return bestTimes;
+  }
+
+  /**
+   * Records in {@code blocked} the start minutes that the merged, sorted {@code busyTimes} of one
+   * attendee (or one group of attendees) rule out for a meeting of {@code length} minutes.
+   */
+  private static void addBlockedStarts(List<TimeRange> busyTimes, int length, int[] blocked) {
+    // Widening the ranges to the left can make neighbours overlap again, so the widened ranges are
+    // merged on the fly before they are recorded.
+    int blockedStart = -1;
+    int blockedEnd = -1;
+    for (TimeRange busyTime : busyTimes) {
+      int start = clamp(busyTime.start() - length + 1);
+      int end = clamp(busyTime.end());
+      if (start >= end) {
+        continue;
+      }
+      if (blockedStart >= 0 && start <= blockedEnd) {
+        blockedEnd = Math.max(blockedEnd, end);
+      } else {
+        if (blockedStart >= 0) {
+          blocked[blockedStart]++;
+          blocked[blockedEnd]--;
+        }
+        blockedStart = start;
+        blockedEnd = end;
+      }
+    }
+    if (blockedStart >= 0) {
+      blocked[blockedStart]++;
+      blocked[blockedEnd]--;
+    }
+  }
+
+  private static int clamp(int minute) {
+    return Math.max(0, Math.min(minute, MINUTES_IN_DAY));
+  }
+}
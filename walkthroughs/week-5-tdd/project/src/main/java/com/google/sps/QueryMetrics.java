@@ -0,0 +1,180 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Histograms of how long each phase of a query takes and of how many bytes each query allocates.
+ *
+ * <p>A query is measured by a {@code Sample} started on its thread. While the sample is active,
+ * the code of each phase calls {@link #lap(Phase)} at its end, which charges the time since the
+ * previous mark to that phase, and {@link #mark()} before work that belongs to no phase. Both do
+ * nothing on threads without a sample, so code shared with unmeasured callers, like
+ * {@code FindMeetingQuery}, can call them unconditionally. A phase reached more than once in a
+ * query, such as finding the busy times of the mandatory and then the optional attendees, is
+ * recorded once with the total.
+ */
+public final class QueryMetrics {
+  /** The phases of a query. */
+  public enum Phase {
+    /** Reading the meeting request from JSON. */
+    PARSE,
+    /** Finding the busy times of the attendees in the calendar. */
+    BUSY_TIMES,
+    /** Sorting and merging busy times, or combining busy bitmaps. */
+    MERGE,
+    /** Finding the free times long enough for the meeting. */
+    FIND_GAPS,
+    /** Writing the response as JSON. */
+    WRITE,
+    /** Everything else, such as looking up cached results. */
+    OTHER
+  }
+
+  private static final ThreadLocal<Sample> CURRENT = new ThreadLocal<>();
+
+  // Null if the JVM cannot count the bytes allocated by a thread.
+  private static final com.sun.management.ThreadMXBean THREADS = allocationCountingThreads();
+
+  private final Map<Phase, LatencyHistogram> phaseNanos = new EnumMap<>(Phase.class);
+  private final LatencyHistogram totalNanos = new LatencyHistogram();
+  private final LatencyHistogram allocatedBytes = new LatencyHistogram();
+
+  public QueryMetrics() {
+    for (Phase phase : Phase.values()) {
+      phaseNanos.put(phase, new LatencyHistogram());
+    }
+  }
+
+  /**
+   * Starts measuring a query on the current thread. The sample must be finished on the same
+   * thread, and samples cannot be nested.
+   */
+  public Sample start() {
+    if (CURRENT.get() != null) {
+      throw new IllegalStateException("A query is already being measured on this thread");
+    }
+
+    Sample sample = new Sample(this);
+    CURRENT.set(sample);
+    return sample;
+  }
+
+  /** Charges the time since the last mark to {@code phase}, if a query is being measured. */
+  public static void lap(Phase phase) {
+    Sample sample = CURRENT.get();
+    if (sample != null) {
+      long now = System.nanoTime();
+      sample.phaseNanos[phase.ordinal()] += now - sample.mark;
+      sample.reached[phase.ordinal()] = true;
+      sample.mark = now;
+    }
+  }
+
+  /** Marks the current time without charging any phase, if a query is being measured. */
+  public static void mark() {
+    Sample sample = CURRENT.get();
+    if (sample != null) {
+      sample.mark = System.nanoTime();
+    }
+  }
+
+  /** Returns the histogram of the nanoseconds spent in {@code phase}, per query that reached it. */
+  public LatencyHistogram getPhaseNanos(Phase phase) {
+    return phaseNanos.get(phase);
+  }
+
+  /** Returns the histogram of the nanoseconds each query took from start to finish. */
+  public LatencyHistogram getTotalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * Returns the histogram of the bytes each query allocated on its own thread, which is empty if
+   * the JVM cannot count them. Work handed to other threads, such as parallel shards, is not
+   * counted.
+   */
+  public LatencyHistogram getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  private static com.sun.management.ThreadMXBean allocationCountingThreads() {
+    try {
+      java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      if (threads instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (sunThreads.isThreadAllocatedMemorySupported()
+            && sunThreads.isThreadAllocatedMemoryEnabled()) {
+          return sunThreads;
+        }
+      }
+    } catch (LinkageError e) {
+      // The JVM has no com.sun.management, so allocations are not counted.
+    }
+    return null;
+  }
+
+  private static long allocatedBytesOfCurrentThread() {
+    return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /** The measurements of one query, kept on its thread until it finishes. */
+  public static final class Sample implements AutoCloseable {
+    private final QueryMetrics metrics;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final boolean[] reached = new boolean[Phase.values().length];
+    private final long startNanos;
+    private final long startAllocatedBytes;
+    private long mark;
+
+    private Sample(QueryMetrics metrics) {
+      this.metrics = metrics;
+      this.startAllocatedBytes = allocatedBytesOfCurrentThread();
+      this.startNanos = System.nanoTime();
+      this.mark = startNanos;
+    }
+
+    /**
+     * Stops measuring the query and records it. Time not charged to any phase is charged to
+     * {@code OTHER}.
+     */
+    @Override
+    public void close() {
+      long totalNanos = System.nanoTime() - startNanos;
+      long allocatedBytes = allocatedBytesOfCurrentThread() - startAllocatedBytes;
+      CURRENT.remove();
+
+      long chargedNanos = 0;
+      for (Phase phase : Phase.values()) {
+        chargedNanos += phaseNanos[phase.ordinal()];
+      }
+      phaseNanos[Phase.OTHER.ordinal()] += totalNanos - chargedNanos;
+      reached[Phase.OTHER.ordinal()] = true;
+      for (Phase phase : Phase.values()) {
+        // Phases the query never reached, such as the engine's on a cache hit, are not recorded.
+        if (reached[phase.ordinal()]) {
+          metrics.phaseNanos.get(phase).record(phaseNanos[phase.ordinal()]);
+        }
+      }
+      metrics.totalNanos.record(totalNanos);
+      if (THREADS != null) {
+        metrics.allocatedBytes.record(allocatedBytes);
+      }
+    }
+  }
+}
@@ -0,0 +1,179 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of meeting query results, evicting the least recently used result when full.
+ * Requests with the same attendees in any order, the same duration and the same limit, answered
+ * by the same engine, share a result. Results belong to one version of the calendar, and the
+ * whole cache is dropped when a newer version is asked for. Caches can be shared between threads.
+ */
+public final class QueryResultCache {
+  private final int maxEntries;
+  private final Map<Key, Collection<TimeRange>> results;
+  private long version;
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maxEntries The most results to keep. Must be positive.
+   */
+  public QueryResultCache(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+
+    this.maxEntries = maxEntries;
+    this.results = new LinkedHashMap<Key, Collection<TimeRange>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Collection<TimeRange>> eldest) {
+        if (size() > QueryResultCache.this.maxEntries) {
+          evictionCount++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached result of {@code request} on version {@code version} of the calendar, or
+   * computes it with {@code query} and caches it. The returned collection is read-only.
+   */
+  public Collection<TimeRange> get(MeetingRequest request, long version,
+      Function<MeetingRequest, Collection<TimeRange>> query) {
+    return get(request, FindMeetingQuery.Engine.INTERVAL_MERGE, version, query);
+  }
+
+  /**
+   * Same as {@link #get(MeetingRequest, long, Function)}, for a query that uses {@code engine}.
+   * Results of different engines are kept apart, so that comparing engines never compares a
+   * result with a cached copy of itself.
+   */
+  public Collection<TimeRange> get(MeetingRequest request, FindMeetingQuery.Engine engine,
+      long version, Function<MeetingRequest, Collection<TimeRange>> query) {
+    Key key = new Key(request, engine);
+    synchronized (this) {
+      if (version > this.version) {
+        results.clear();
+        this.version = version;
+      }
+      // Results of older versions are never cached, since they would never be asked for again.
+      if (version == this.version) {
+        Collection<TimeRange> result = results.get(key);
+        if (result != null) {
+          hitCount++;
+          return result;
+        }
+      }
+      missCount++;
+    }
+
+    // Queries can take a while, so they run without the lock. Two threads may compute the same
+    // result, which is harmless.
+    Collection<TimeRange> result =
+        Collections.unmodifiableList(new ArrayList<>(query.apply(request)));
+    synchronized (this) {
+      if (version == this.version) {
+        results.put(key, result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of requests that were answered from the cache.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of requests that had to be computed.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of results dropped to make room for newer ones. Results dropped because the
+   * calendar changed are not counted.
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the number of cached results.
+   */
+  public synchronized int size() {
+    return results.size();
+  }
+
+  /** The normalized form of a request: sorted attendees, the duration, the limit and the engine. */
+  private static final class Key {
+    private final String[] attendees;
+    private final String[] optionalAttendees;
+    private final long duration;
+    private final int limit;
+    private final FindMeetingQuery.Engine engine;
+    private final int hash;
+
+    Key(MeetingRequest request, FindMeetingQuery.Engine engine) {
+      this.attendees = sorted(request.getAttendees());
+      this.optionalAttendees = sorted(request.getOptionalAttendees());
+      this.duration = request.getDuration();
+      this.limit = request.getLimit();
+      this.engine = engine;
+      this.hash = 31 * (31 * (31 * (31 * Arrays.hashCode(attendees)
+          + Arrays.hashCode(optionalAttendees)) + Long.hashCode(duration)) + limit)
+          + engine.hashCode();
+    }
+
+    private static String[] sorted(Collection<String> names) {
+      String[] array = names.toArray(new String[0]);
+      Arrays.sort(array);
+      return array;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return hash == key.hash && duration == key.duration && limit == key.limit
+          && engine == key.engine
+          && Arrays.equals(attendees, key.attendees)
+          && Arrays.equals(optionalAttendees, key.optionalAttendees);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A calendar that adds the occurrences of recurring events on one day to the busy times of another
+ * calendar, which holds the single events of that day. The recurring events are indexed by
+ * attendee and expanded on every query, into the queried window only, so the calendar takes
+ * memory in proportion to the number of rules, not of occurrences. Calendars are read-only if the
+ * calendar they wrap is, and can then be shared between threads.
+ */
+public final class RecurringCalendar implements BusyCalendar {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final BusyCalendar calendar;
+  private final Map<String, List<RecurringEvent>> recurringEventsByAttendee;
+  // The first minute of the day the calendar shows, in the time of the recurring events.
+  private final int dayStart;
+
+  /**
+   * Creates a calendar of the first day of the recurring events.
+   *
+   * @param calendar The calendar with the attendees' single events of the day. Must be non-null.
+   * @param recurringEvents The recurring events. Must be non-null.
+   */
+  public RecurringCalendar(BusyCalendar calendar, Collection<RecurringEvent> recurringEvents) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("calendar cannot be null");
+    }
+
+    if (recurringEvents == null) {
+      throw new IllegalArgumentException(
+          "recurringEvents cannot be null. Use empty array instead.");
+    }
+
+    this.calendar = calendar;
+    this.recurringEventsByAttendee = new HashMap<>();
+    for (RecurringEvent recurringEvent : recurringEvents) {
+      for (String attendee : recurringEvent.getAttendees()) {
+        recurringEventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>())
+            .add(recurringEvent);
+      }
+    }
+    this.dayStart = 0;
+  }
+
+  private RecurringCalendar(RecurringCalendar rules, BusyCalendar calendar, int day) {
+    this.calendar = calendar;
+    this.recurringEventsByAttendee = rules.recurringEventsByAttendee;
+    this.dayStart = day * MINUTES_PER_DAY;
+  }
+
+  /**
+   * Returns a calendar with the same recurring events, as they occur on {@code day}, on top of
+   * {@code calendar}. The index of the recurring events is shared, not built again.
+   *
+   * @param calendar The calendar with the attendees' single events of that day. Must be non-null.
+   * @param day The day to show, counted from the first day of the recurring events. Must be
+   *     between 0 and {@code RecurringEvent.LAST_DAY}.
+   */
+  public RecurringCalendar onDay(BusyCalendar calendar, int day) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("calendar cannot be null");
+    }
+
+    if (day < 0 || day > RecurringEvent.LAST_DAY) {
+      throw new IllegalArgumentException("day must be between 0 and " + RecurringEvent.LAST_DAY);
+    }
+
+    return new RecurringCalendar(this, calendar, day);
+  }
+
+  @Override
+  public long getVersion() {
+    return calendar.getVersion();
+  }
+
+  @Override
+  public List<TimeRange> getBusyTimes(Collection<String> attendees, TimeRange window) {
+    List<TimeRange> busyTimes = new ArrayList<>(calendar.getBusyTimes(attendees, window));
+    IntervalList occurrences = new IntervalList();
+    addOccurrences(attendees, window, occurrences);
+    busyTimes.addAll(occurrences.toTimeRanges());
+    return busyTimes;
+  }
+
+  @Override
+  public void addBusyTimes(
+      Collection<String> attendees, TimeRange window, IntervalList busyTimes) {
+    calendar.addBusyTimes(attendees, window, busyTimes);
+    addOccurrences(attendees, window, busyTimes);
+  }
+
+  @Override
+  public BitSet getBusyMinutes(Collection<String> attendees) {
+    BitSet busyMinutes = calendar.getBusyMinutes(attendees);
+    IntervalList occurrences = new IntervalList();
+    addOccurrences(attendees, TimeRange.WHOLE_DAY, occurrences);
+    for (int i = 0; i < occurrences.size(); i++) {
+      // Only the part of the occurrence within the day can be represented.
+      int start = Math.max(occurrences.start(i), TimeRange.WHOLE_DAY.start());
+      int end = Math.min(occurrences.end(i), TimeRange.WHOLE_DAY.end());
+      if (start < end) {
+        busyMinutes.set(start, end);
+      }
+    }
+    return busyMinutes;
+  }
+
+  /** Appends the occurrences of the attendees' recurring events that overlap the window. */
+  private void addOccurrences(
+      Collection<String> attendees, TimeRange window, IntervalList busyTimes) {
+    // The window is in the time of the day shown, and the occurrences are shifted back into it.
+    // Windows reaching past the last representable minute are cut short there.
+    long shiftedStart = (long) dayStart + window.start();
+    long shiftedEnd = Math.min(shiftedStart + window.duration(), Integer.MAX_VALUE);
+    if (shiftedStart >= shiftedEnd) {
+      return;
+    }
+    TimeRange shiftedWindow =
+        TimeRange.fromStartEnd((int) shiftedStart, (int) shiftedEnd, false);
+    for (String attendee : attendees) {
+      List<RecurringEvent> recurringEvents =
+          recurringEventsByAttendee.getOrDefault(attendee, Collections.emptyList());
+      for (RecurringEvent recurringEvent : recurringEvents) {
+        recurringEvent.addOccurrences(shiftedWindow, -dayStart, busyTimes);
+      }
+    }
+  }
+}
@@ -0,0 +1,172 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An event that repeats every few days, such as a daily stand-up or a meeting every other week,
+ * stored as a rule rather than as its occurrences. Times are in minutes since the start of the
+ * first day, as in {@code HorizonCalendar}, so day {@code d} covers the minutes
+ * {@code [d * MINUTES_PER_DAY, (d + 1) * MINUTES_PER_DAY)}. Occurrences are only computed for the
+ * window asked for, in time proportional to the number of occurrences in it. Recurring events are
+ * considered read-only.
+ */
+public final class RecurringEvent {
+  /** The interval of an event that takes place every day. */
+  public static final int DAILY = 1;
+  /** The interval of an event that takes place every week. */
+  public static final int WEEKLY = 7;
+  /** The occurrence count of an event that repeats forever. */
+  public static final int FOREVER = Integer.MAX_VALUE;
+  /** The last day whose every minute can be represented as an {@code int}. */
+  public static final int LAST_DAY = Integer.MAX_VALUE / TimeRange.WHOLE_DAY.duration() - 1;
+
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final String title;
+  private final TimeRange first;
+  private final Set<String> attendees = new HashSet<>();
+  private final int intervalDays;
+  private final int occurrenceCount;
+  // The days on which an occurrence is cancelled, sorted.
+  private final int[] exceptionDays;
+
+  /**
+   * Creates a new recurring event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param first The time of the first occurrence. Must be non-null and must not start before the
+   *     first day.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   * @param intervalDays The number of days from one occurrence to the next, such as
+   *     {@code DAILY}, {@code WEEKLY} or {@code 2 * WEEKLY}. Must be positive.
+   * @param occurrenceCount The number of occurrences, cancelled ones included, or
+   *     {@code FOREVER}. Must be positive.
+   * @param exceptionDays The days on which the occurrence that would start then is cancelled.
+   *     Must be non-null.
+   */
+  public RecurringEvent(String title, TimeRange first, Collection<String> attendees,
+      int intervalDays, int occurrenceCount, Collection<Integer> exceptionDays) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (first == null || first.start() < 0) {
+      throw new IllegalArgumentException("first must start on or after the first day");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    if (intervalDays <= 0) {
+      throw new IllegalArgumentException("intervalDays must be positive");
+    }
+
+    if (occurrenceCount <= 0) {
+      throw new IllegalArgumentException("occurrenceCount must be positive");
+    }
+
+    if (exceptionDays == null) {
+      throw new IllegalArgumentException("exceptionDays cannot be null. Use empty array instead.");
+    }
+
+    this.title = title;
+    this.first = first;
+    this.attendees.addAll(attendees);
+    this.intervalDays = intervalDays;
+    this.occurrenceCount = occurrenceCount;
+    this.exceptionDays = exceptionDays.stream().mapToInt(Integer::intValue).sorted().toArray();
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the {@code TimeRange} of the first occurrence of this event.
+   */
+  public TimeRange getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(attendees);
+  }
+
+  /**
+   * Returns the number of days from one occurrence to the next.
+   */
+  public int getIntervalDays() {
+    return intervalDays;
+  }
+
+  /**
+   * Returns the number of occurrences, cancelled ones included, or {@code FOREVER}.
+   */
+  public int getOccurrenceCount() {
+    return occurrenceCount;
+  }
+
+  /**
+   * Returns whether the occurrence that would start on {@code day} is cancelled.
+   */
+  public boolean isException(int day) {
+    return Arrays.binarySearch(exceptionDays, day) >= 0;
+  }
+
+  /**
+   * Returns the times of the occurrences that overlap {@code window}, in time order. Occurrences
+   * are not clipped to the window.
+   */
+  public List<TimeRange> getOccurrences(TimeRange window) {
+    IntervalList occurrences = new IntervalList();
+    addOccurrences(window, 0, occurrences);
+    return occurrences.toTimeRanges();
+  }
+
+  /**
+   * Appends the occurrences that overlap {@code window} to {@code busyTimes}, in time order,
+   * shifted by {@code offset} minutes. Occurrences are not clipped to the window.
+   */
+  void addOccurrences(TimeRange window, int offset, IntervalList busyTimes) {
+    long period = (long) intervalDays * MINUTES_PER_DAY;
+    // The first occurrence that ends after the window starts.
+    long index = Math.max(0, Math.floorDiv(
+        (long) window.start() - first.duration() - first.start(), period) + 1);
+    for (; index < occurrenceCount; index++) {
+      long start = first.start() + index * period;
+      if (start >= window.end()) {
+        break;
+      }
+      if (!isException((int) (start / MINUTES_PER_DAY))) {
+        // Shifted occurrences are near the window again, but the sums may not fit in an int.
+        busyTimes.add((int) (start + offset), (int) (start + first.duration() + offset));
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public final class RecurringEvents {
+  // The recurring events of the people in Events, with times in minutes since the start of the
+  // first day of the horizon, which is a Monday.
+  public static final RecurringEvent[] recurringEvents = {
+    new RecurringEvent("Daily Stand-up",
+        TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(9, 30), 15),
+        Arrays.asList("Amelia", "Emma", "Liam", "Noah"),
+        RecurringEvent.DAILY, RecurringEvent.FOREVER,
+        // No stand-up on the first weekend.
+        Arrays.asList(5, 6)),
+    new RecurringEvent("Weekly 1:1",
+        TimeRange.fromStartDuration(HorizonCalendar.getTimeInMinutes(1, 14, 0), 30),
+        Arrays.asList("Isabella", "Oliver"),
+        RecurringEvent.WEEKLY, RecurringEvent.FOREVER, Collections.emptyList()),
+    new RecurringEvent("Sprint Planning",
+        TimeRange.fromStartDuration(HorizonCalendar.getTimeInMinutes(0, 13, 0), 120),
+        Arrays.asList("Ava", "James", "Logan", "Olivia"),
+        2 * RecurringEvent.WEEKLY, 12, Collections.emptyList())
+  };
+
+  private RecurringEvents() {
+    // Disallow instances.
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Pairs the free times of a meeting's attendees with rooms that are big enough and free at the
+ * same time. The attendees' free times are found once and then intersected with each room's free
+ * times, with the rooms searched in parallel on the common fork-join pool.
+ */
+final class RoomSearch {
+  private RoomSearch() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns every slot of at least {@code duration} minutes in which a room of {@code rooms} with
+   * room for {@code attendeeCount} people is free during one of {@code freeTimes}, sorted by start
+   * and then by room name.
+   *
+   * @param freeTimes The free times of the attendees, sorted and without overlaps.
+   * @param roomCalendar The calendar in which the rooms are busy under their names.
+   */
+  static List<RoomSlot> findSlots(IntervalList freeTimes, long duration, int attendeeCount,
+      BusyCalendar roomCalendar, Collection<Room> rooms) {
+    if (freeTimes.size() == 0) {
+      return Collections.emptyList();
+    }
+
+    // The free times are only read from here on, so every room can share them.
+    List<RoomSlot> slots = rooms.parallelStream()
+        .filter(room -> room.getCapacity() >= attendeeCount)
+        .flatMap(room -> findSlots(freeTimes, duration, roomCalendar, room).stream())
+        .collect(Collectors.toList());
+    slots.sort(RoomSlot.ORDER_BY_START);
+    return slots;
+  }
+
+  /** Returns the slots in {@code room}, in time order. */
+  private static List<RoomSlot> findSlots(
+      IntervalList freeTimes, long duration, BusyCalendar roomCalendar, Room room) {
+    IntervalList roomBusyTimes = new IntervalList();
+    roomCalendar.addBusyTimes(
+        Collections.singletonList(room.getName()), TimeRange.WHOLE_DAY, roomBusyTimes);
+    roomBusyTimes.sortAndMerge();
+
+    // Walk both sorted lists together, cutting each free time of the attendees at the room's busy
+    // times.
+    List<RoomSlot> slots = new ArrayList<>();
+    int busy = 0;
+    for (int i = 0; i < freeTimes.size(); i++) {
+      int start = freeTimes.start(i);
+      int end = freeTimes.end(i);
+      // Busy times that end before this free time cannot cut it or any later one.
+      while (busy < roomBusyTimes.size() && roomBusyTimes.end(busy) <= start) {
+        busy++;
+      }
+      int cut = busy;
+      while (start < end) {
+        int gapEnd = end;
+        int nextStart = end;
+        if (cut < roomBusyTimes.size() && roomBusyTimes.start(cut) < end) {
+          gapEnd = Math.max(start, roomBusyTimes.start(cut));
+          nextStart = roomBusyTimes.end(cut);
+          cut++;
+        }
+        if (gapEnd - start >= duration && gapEnd > start) {
+          slots.add(new RoomSlot(TimeRange.fromStartEnd(start, gapEnd, false), room));
+        }
+        start = nextStart;
+      }
+    }
+    return slots;
+  }
+}
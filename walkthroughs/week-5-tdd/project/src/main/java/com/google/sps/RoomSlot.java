@@ -0,0 +1,84 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * A time at which a meeting can take place in a given room.
+ */
+public final class RoomSlot {
+  /**
+   * A comparator for sorting slots by the start of their time, then by the name of their room.
+   */
+  public static final Comparator<RoomSlot> ORDER_BY_START = Comparator
+      .comparing((RoomSlot slot) -> slot.getWhen(), TimeRange.ORDER_BY_START)
+      .thenComparing(slot -> slot.getRoom().getName());
+
+  private final TimeRange when;
+  private final Room room;
+
+  /**
+   * Creates a new slot.
+   *
+   * @param when The time of the slot. Must be non-null.
+   * @param room The room of the slot. Must be non-null.
+   */
+  public RoomSlot(TimeRange when, Room room) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (room == null) {
+      throw new IllegalArgumentException("room cannot be null");
+    }
+
+    this.when = when;
+    this.room = room;
+  }
+
+  /**
+   * Returns the time of the slot, in which every attendee and the room are free.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns the room of the slot.
+   */
+  public Room getRoom() {
+    return room;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * when.hashCode() + room.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RoomSlot && equals(this, (RoomSlot) other);
+  }
+
+  private static boolean equals(RoomSlot a, RoomSlot b) {
+    return a.when.equals(b.when) && a.room.equals(b.room);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s in %s", when, room.getName());
+  }
+}
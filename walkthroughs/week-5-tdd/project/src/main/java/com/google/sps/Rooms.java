@@ -0,0 +1,47 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+public final class Rooms {
+  private static final Room ROOM_AURORA = new Room("Aurora", 4);
+  private static final Room ROOM_BOREALIS = new Room("Borealis", 8);
+  private static final Room ROOM_CIRRUS = new Room("Cirrus", 12);
+  private static final Room ROOM_DRIZZLE = new Room("Drizzle", 2);
+
+  private static final int TIME_0900 = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000 = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1200 = TimeRange.getTimeInMinutes(12, 0);
+  private static final int TIME_1300 = TimeRange.getTimeInMinutes(13, 0);
+  private static final int TIME_1400 = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_1600 = TimeRange.getTimeInMinutes(16, 0);
+
+  public static final Room[] rooms = {ROOM_AURORA, ROOM_BOREALIS, ROOM_CIRRUS, ROOM_DRIZZLE};
+
+  // Bookings list the room they take place in as their attendee.
+  public static final Event[] bookings = {
+      new Event("All-hands Rehearsal", TimeRange.fromStartEnd(TIME_0900, TIME_1000, false),
+          Arrays.asList(ROOM_CIRRUS.getName())),
+      new Event("Design Review", TimeRange.fromStartEnd(TIME_1200, TIME_1300, false),
+          Arrays.asList(ROOM_BOREALIS.getName())),
+      new Event("Interview", TimeRange.fromStartEnd(TIME_1400, TIME_1600, false),
+          Arrays.asList(ROOM_AURORA.getName())),
+  };
+
+  private Rooms() {
+    // Disallow instances.
+  }
+}
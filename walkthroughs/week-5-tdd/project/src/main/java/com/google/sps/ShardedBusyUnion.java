@@ -0,0 +1,160 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds the merged busy times of a very large group of attendees in parallel. The attendees are
+ * split into shards, the busy times of each shard are found and merged on the common fork-join
+ * pool, and the sorted partial lists are then combined with a k-way merge. Below
+ * {@link #PARALLEL_THRESHOLD} attendees, handing work to other threads costs more than it saves.
+ */
+final class ShardedBusyUnion {
+  /** The smallest number of attendees for which the busy times are found in parallel. */
+  static final int PARALLEL_THRESHOLD = 1024;
+
+  // Shards smaller than this do too little work to be worth a task of their own.
+  private static final int MIN_SHARD_SIZE = 256;
+
+  private ShardedBusyUnion() {
+    // Disallow instances.
+  }
+
+  /**
+   * Appends the busy times of {@code attendees} within the day to {@code busyTimes}, sorted and
+   * without overlaps, using one shard per thread of the common pool.
+   */
+  static void addBusyTimes(
+      BusyCalendar calendar, Collection<String> attendees, IntervalList busyTimes) {
+    int shardCount = Math.min(ForkJoinPool.getCommonPoolParallelism(),
+        (attendees.size() + MIN_SHARD_SIZE - 1) / MIN_SHARD_SIZE);
+    addBusyTimes(calendar, attendees, busyTimes, Math.max(shardCount, 1));
+  }
+
+  /** Same as {@link #addBusyTimes(BusyCalendar, Collection, IntervalList)} with set shards. */
+  static void addBusyTimes(BusyCalendar calendar, Collection<String> attendees,
+      IntervalList busyTimes, int shardCount) {
+    List<String> attendeeList = Arrays.asList(attendees.toArray(new String[0]));
+    List<ShardTask> shards = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      int from = (int) ((long) attendeeList.size() * i / shardCount);
+      int to = (int) ((long) attendeeList.size() * (i + 1) / shardCount);
+      shards.add(new ShardTask(calendar, attendeeList.subList(from, to)));
+    }
+    ForkJoinTask.invokeAll(shards);
+
+    IntervalList[] partials = new IntervalList[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      partials[i] = shards.get(i).join();
+    }
+    mergeSorted(partials, busyTimes);
+  }
+
+  /**
+   * Appends the union of the sorted, non-overlapping {@code lists} to {@code busyTimes}, sorted and
+   * without overlaps. A binary heap of the lists, keyed by their next start, picks the earliest
+   * interval at each step.
+   */
+  private static void mergeSorted(IntervalList[] lists, IntervalList busyTimes) {
+    int[] heap = new int[lists.length];
+    int[] positions = new int[lists.length];
+    int size = 0;
+    for (int i = 0; i < lists.length; i++) {
+      if (lists[i].size() > 0) {
+        heap[size++] = i;
+      }
+    }
+    for (int i = size / 2 - 1; i >= 0; i--) {
+      siftDown(heap, size, i, lists, positions);
+    }
+
+    boolean open = false;
+    int start = 0;
+    int end = 0;
+    while (size > 0) {
+      int list = heap[0];
+      int nextStart = lists[list].start(positions[list]);
+      int nextEnd = lists[list].end(positions[list]);
+      if (++positions[list] == lists[list].size()) {
+        heap[0] = heap[--size];
+      }
+      siftDown(heap, size, 0, lists, positions);
+
+      if (open && nextStart <= end) {
+        // Overlapping or touching intervals from different shards are combined.
+        end = Math.max(end, nextEnd);
+      } else {
+        if (open) {
+          busyTimes.add(start, end);
+        }
+        open = true;
+        start = nextStart;
+        end = nextEnd;
+      }
+    }
+    if (open) {
+      busyTimes.add(start, end);
+    }
+  }
+
+  private static void siftDown(
+      int[] heap, int size, int index, IntervalList[] lists, int[] positions) {
+    int value = heap[index];
+    int valueStart = index < size ? lists[value].start(positions[value]) : 0;
+    while (2 * index + 1 < size) {
+      int child = 2 * index + 1;
+      int childStart = lists[heap[child]].start(positions[heap[child]]);
+      if (child + 1 < size) {
+        int rightStart = lists[heap[child + 1]].start(positions[heap[child + 1]]);
+        if (rightStart < childStart) {
+          child++;
+          childStart = rightStart;
+        }
+      }
+      if (valueStart <= childStart) {
+        break;
+      }
+      heap[index] = heap[child];
+      index = child;
+    }
+    heap[index] = value;
+  }
+
+  /** Finds and merges the busy times of one shard of the attendees. */
+  private static final class ShardTask extends RecursiveTask<IntervalList> {
+    private final BusyCalendar calendar;
+    private final List<String> attendees;
+
+    ShardTask(BusyCalendar calendar, List<String> attendees) {
+      this.calendar = calendar;
+      this.attendees = attendees;
+    }
+
+    @Override
+    protected IntervalList compute() {
+      IntervalList busyTimes = new IntervalList();
+      calendar.addBusyTimes(attendees, TimeRange.WHOLE_DAY, busyTimes);
+      busyTimes.sortAndMerge();
+      return busyTimes;
+    }
+  }
+}
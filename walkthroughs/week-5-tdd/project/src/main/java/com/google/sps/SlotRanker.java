@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Picks the best meeting times out of every possible start time in the free times of the
+ * attendees. When only the best {@code k} are wanted, only the best {@code k} candidates seen so
+ * far are kept, in a min-heap whose root is the worst of them, so each candidate costs one
+ * comparison with the root, plus log k work if it makes the cut, and the candidates are never
+ * sorted as a whole. When every candidate is wanted, they are sorted once instead.
+ */
+final class SlotRanker {
+  // Bounds the memory taken up front when k is huge.
+  private static final int MAX_INITIAL_CAPACITY = 1024;
+
+  private SlotRanker() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the {@code k} best meetings of {@code duration} minutes by {@code scorer}, best first,
+   * out of the meetings starting every {@code step} minutes from the start of each free time.
+   * Meetings with equal scores are ordered by start. {@code k} and {@code step} must be positive.
+   */
+  static List<TimeRange> topK(Iterator<TimeRange> freeTimes, long duration, int step, int k,
+      SlotScorer scorer) {
+    // The root of the heap is the candidate that would be dropped first.
+    PriorityQueue<Candidate> best = new PriorityQueue<>(
+        Math.min(k, MAX_INITIAL_CAPACITY) + 1, Candidate::compareWorstFirst);
+    long length = Math.max(duration, 1);
+    while (freeTimes.hasNext()) {
+      TimeRange freeTime = freeTimes.next();
+      // The loop runs on longs, so that a huge step or duration ends it instead of wrapping around
+      // to a negative start. Every slot it reaches lies within the free time, so fits in an int.
+      for (long start = freeTime.start(); start + length <= freeTime.end(); start += step) {
+        TimeRange slot = TimeRange.fromStartDuration((int) start, (int) length);
+        double score = scorer.score(slot, freeTime);
+        if (best.size() < k) {
+          best.add(new Candidate(slot, score));
+        } else if (Candidate.compare(score, slot.start(), best.peek()) > 0) {
+          best.poll();
+          best.add(new Candidate(slot, score));
+        }
+      }
+    }
+
+    List<TimeRange> ranked = new ArrayList<>(best.size());
+    while (!best.isEmpty()) {
+      ranked.add(best.poll().slot);
+    }
+    Collections.reverse(ranked);
+    return ranked;
+  }
+
+  /**
+   * Returns every meeting of {@code duration} minutes starting every {@code step} minutes from the
+   * start of each free time, best first by {@code scorer}, in the same order as {@link #topK}.
+   * {@code step} must be positive.
+   */
+  static List<TimeRange> rankAll(Iterator<TimeRange> freeTimes, long duration, int step,
+      SlotScorer scorer) {
+    List<Candidate> candidates = new ArrayList<>();
+    long length = Math.max(duration, 1);
+    while (freeTimes.hasNext()) {
+      TimeRange freeTime = freeTimes.next();
+      // See topK() for why the loop runs on longs.
+      for (long start = freeTime.start(); start + length <= freeTime.end(); start += step) {
+        TimeRange slot = TimeRange.fromStartDuration((int) start, (int) length);
+        candidates.add(new Candidate(slot, scorer.score(slot, freeTime)));
+      }
+    }
+
+    candidates.sort((a, b) -> Candidate.compareWorstFirst(b, a));
+    List<TimeRange> ranked = new ArrayList<>(candidates.size());
+    for (Candidate candidate : candidates) {
+      ranked.add(candidate.slot);
+    }
+    return ranked;
+  }
+
+  private static final class Candidate {
+    private final TimeRange slot;
+    private final double score;
+
+    Candidate(TimeRange slot, double score) {
+      this.slot = slot;
+      this.score = score;
+    }
+
+    /** Compares a candidate given as its score and start with {@code other}; greater is better. */
+    static int compare(double score, int start, Candidate other) {
+      int comparison = Double.compare(score, other.score);
+      // On equal scores the earlier meeting is better.
+      return comparison != 0 ? comparison : Integer.compare(other.slot.start(), start);
+    }
+
+    static int compareWorstFirst(Candidate a, Candidate b) {
+      return compare(a.score, a.slot.start(), b);
+    }
+  }
+}
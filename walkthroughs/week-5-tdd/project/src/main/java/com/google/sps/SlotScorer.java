@@ -0,0 +1,63 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Scores a possible meeting time so that the best times can be offered first. Higher scores are
+ * better. Scorers must be safe to call from several threads at once.
+ */
+@FunctionalInterface
+public interface SlotScorer {
+  /**
+   * Returns the score of holding the meeting at {@code slot}, which lies within
+   * {@code freeTime}, the whole stretch of time in which every attendee is free around it.
+   */
+  double score(TimeRange slot, TimeRange freeTime);
+
+  /**
+   * Returns a scorer that prefers meetings that waste the least free time. Free time left on
+   * either side of the meeting that is shorter than {@code minUsefulMinutes} is too short for
+   * anything else and counts as wasted, so meetings placed right against other events or leaving
+   * long stretches free score best.
+   */
+  static SlotScorer leastFragmentation(int minUsefulMinutes) {
+    return (slot, freeTime) -> {
+      int before = slot.start() - freeTime.start();
+      int after = freeTime.end() - slot.end();
+      int wasted = 0;
+      if (before < minUsefulMinutes) {
+        wasted += before;
+      }
+      if (after < minUsefulMinutes) {
+        wasted += after;
+      }
+      return -wasted;
+    };
+  }
+
+  /**
+   * Returns a scorer that prefers meetings starting as close as possible to
+   * {@code preferredStart}, in minutes since the start of the day. {@code preferredStart} must lie
+   * within the day.
+   */
+  static SlotScorer closestTo(int preferredStart) {
+    if (preferredStart < TimeRange.START_OF_DAY || preferredStart > TimeRange.END_OF_DAY) {
+      throw new IllegalArgumentException("preferredStart must be within the day");
+    }
+
+    // Slot starts are never negative, so the difference cannot overflow.
+    return (slot, freeTime) -> -Math.abs(slot.start() - preferredStart);
+  }
+}
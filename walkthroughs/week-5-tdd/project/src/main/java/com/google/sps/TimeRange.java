@@ -50,6 +50,11 @@ public final class TimeRange {
   private final int duration;
 
   private TimeRange(int start, int duration) {
+    // A negative duration, or an end past the largest int, would put the end before the start.
+    if (duration < 0 || (long) start + duration > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The end of a range cannot come before its start.");
+    }
+
     this.start = start;
     this.duration = duration;
   }
@@ -171,14 +176,21 @@ public final class TimeRange {
   /**
    * Creates a {@code TimeRange} from {@code start} to {@code end}. Whether or not {@code end} is
    * included in the range will depend on {@code inclusive}. If {@code inclusive} is {@code true},
-   * then @{code end} will be in the range.
+   * then @{code end} will be in the range. {@code end} cannot come before {@code start}.
    */
   public static TimeRange fromStartEnd(int start, int end, boolean inclusive) {
-    return inclusive ? new TimeRange(start, end - start + 1) : new TimeRange(start, end - start);
+    // The difference of two ints may not fit in an int.
+    long duration = (long) end - start + (inclusive ? 1 : 0);
+    if (duration < 0 || duration > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The end of a range cannot come before its start.");
+    }
+
+    return new TimeRange(start, (int) duration);
   }
 
   /**
    * Create a {@code TimeRange} starting at {@code start} with a duration equal to {@code duration}.
+   * The duration cannot be negative, and the end must fit in an {@code int}.
    */
   public static TimeRange fromStartDuration(int start, int duration) {
     return new TimeRange(start, duration);
@@ -0,0 +1,491 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A mutable calendar whose readers never block and never see a change half made. Every change
+ * publishes a new immutable {@code Snapshot} with an atomic swap, and readers query whichever
+ * snapshot they took, without locks. Writers take turns.
+ *
+ * <p>The contents of a snapshot are split into stripes by hash, both per attendee and per event,
+ * and a change copies only the stripes it touches and the structures of the attendees it touches.
+ * Every other stripe is shared with the previous snapshot.
+ *
+ * <p>Each attendee's busy times are kept merged, sorted and without overlaps, and are merged again
+ * only for the attendees a change touches, so queries read the precomputed lists instead of
+ * merging raw events.
+ *
+ * <p>Large imports go through a {@code Builder}, which files each event into the structures of the
+ * next snapshot as it arrives, so that the events are never collected into a list first.
+ */
+public final class VersionedEventStore {
+  private static final int STRIPE_COUNT = 64;
+
+  private final AtomicReference<Snapshot> current = new AtomicReference<>();
+  private final Object writeLock = new Object();
+
+  /** Creates an empty store. */
+  public VersionedEventStore() {
+    this(Collections.emptyList());
+  }
+
+  /**
+   * Creates a store whose first snapshot holds {@code events}.
+   *
+   * @param events The initial events. Must be non-null.
+   */
+  public VersionedEventStore(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+
+    Builder builder = new Builder();
+    for (Event event : events) {
+      builder.add(event);
+    }
+    current.set(new Snapshot(0, newStripes(), newStripes()).merge(builder, 0));
+  }
+
+  /**
+   * Returns the latest snapshot. The snapshot never changes, so every query run against it sees
+   * the same events, whatever writers do meanwhile.
+   */
+  public Snapshot snapshot() {
+    return current.get();
+  }
+
+  /** Adds {@code event}, publishing a new snapshot. */
+  public void addEvent(Event event) {
+    update(Collections.singletonList(event), Collections.emptyList());
+  }
+
+  /**
+   * Removes one copy of {@code event}, publishing a new snapshot.
+   *
+   * @return Whether the event was in the store.
+   */
+  public boolean removeEvent(Event event) {
+    synchronized (writeLock) {
+      Snapshot previous = current.get();
+      return update(Collections.emptyList(), Collections.singletonList(event)) != previous;
+    }
+  }
+
+  /**
+   * Removes one copy of each of {@code removed} that is in the store, then adds {@code added}, and
+   * publishes the result as one new snapshot, so that readers see either none or all of the
+   * changes. Nothing is published if nothing changes.
+   *
+   * @return The snapshot that holds the changes.
+   */
+  public Snapshot update(Collection<Event> added, Collection<Event> removed) {
+    synchronized (writeLock) {
+      Snapshot previous = current.get();
+      Snapshot next = previous.apply(added, removed, previous.version + 1);
+      if (next != previous) {
+        current.set(next);
+      }
+      return next;
+    }
+  }
+
+  /**
+   * Replaces every event in the store with {@code events}, publishing the result as one new
+   * snapshot. The snapshot is built from scratch, which is much cheaper than removing the old
+   * events one by one when they are many.
+   *
+   * @return The snapshot that holds the events.
+   */
+  public Snapshot replaceAll(Collection<Event> events) {
+    Builder builder = newBuilder();
+    for (Event event : events) {
+      builder.add(event);
+    }
+    return builder.publishReplacingAll();
+  }
+
+  /**
+   * Returns a builder of a new snapshot, for adding or replacing many events at once without
+   * holding them in a collection. Writers are not blocked while the builder fills up.
+   */
+  public Builder newBuilder() {
+    return new Builder();
+  }
+
+  private static int stripeOf(Object key) {
+    int hash = key.hashCode();
+    // Spread the high bits down, since only the low bits pick the stripe.
+    return (hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <K, V> Map<K, V>[] newStripes() {
+    Map<K, V>[] stripes = new Map[STRIPE_COUNT];
+    Arrays.fill(stripes, Collections.emptyMap());
+    return stripes;
+  }
+
+  /**
+   * Collects events for one new snapshot. Each event is filed into the striped counts and the
+   * per-attendee lists that the snapshot is made of as soon as it is added, and the snapshot takes
+   * them over when the builder publishes, without copying them again. A builder publishes once,
+   * and is used by one thread.
+   */
+  public final class Builder {
+    private final Map<Event, Integer>[] eventStripes = newStripes();
+    private final boolean[] createdEventStripes = new boolean[STRIPE_COUNT];
+    private final Map<String, List<Event>> eventsByAttendee = new HashMap<>();
+    private int size;
+    private boolean published;
+
+    private Builder() {}
+
+    /**
+     * Adds {@code event} to the snapshot being built.
+     *
+     * @throws IllegalStateException if the builder has published.
+     */
+    public void add(Event event) {
+      if (event == null) {
+        throw new IllegalArgumentException("event cannot be null");
+      }
+
+      if (published) {
+        throw new IllegalStateException("The builder has already published");
+      }
+
+      int stripe = stripeOf(event);
+      if (!createdEventStripes[stripe]) {
+        eventStripes[stripe] = new HashMap<>();
+        createdEventStripes[stripe] = true;
+      }
+      eventStripes[stripe].merge(event, 1, Integer::sum);
+      for (String attendee : event.getAttendees()) {
+        eventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+      }
+      size++;
+    }
+
+    /**
+     * Returns the number of events added so far.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Adds the events to those of the latest snapshot, and publishes the result as one new
+     * snapshot. Nothing is published if no event was added.
+     *
+     * @return The snapshot that holds the events.
+     */
+    public Snapshot publish() {
+      synchronized (writeLock) {
+        Snapshot previous = current.get();
+        if (size == 0 && !published) {
+          published = true;
+          return previous;
+        }
+        Snapshot next = previous.merge(this, previous.version + 1);
+        current.set(next);
+        return next;
+      }
+    }
+
+    /**
+     * Replaces every event in the store with the events, and publishes the result as one new
+     * snapshot.
+     *
+     * @return The snapshot that holds the events.
+     */
+    public Snapshot publishReplacingAll() {
+      synchronized (writeLock) {
+        long nextVersion = current.get().version + 1;
+        Snapshot next =
+            new Snapshot(nextVersion, newStripes(), newStripes()).merge(this, nextVersion);
+        current.set(next);
+        return next;
+      }
+    }
+  }
+
+  /**
+   * One version of the store's events. Snapshots are immutable and can be shared between threads.
+   */
+  public static final class Snapshot implements BusyCalendar {
+    private final long version;
+    // How many copies of each event there are.
+    private final Map<Event, Integer>[] eventStripes;
+    private final Map<String, AttendeeEvents>[] attendeeStripes;
+
+    private Snapshot(long version, Map<Event, Integer>[] eventStripes,
+        Map<String, AttendeeEvents>[] attendeeStripes) {
+      this.version = version;
+      this.eventStripes = eventStripes;
+      this.attendeeStripes = attendeeStripes;
+    }
+
+    @Override
+    public long getVersion() {
+      return version;
+    }
+
+    /**
+     * Returns a copy of the events in the snapshot, in no particular order.
+     */
+    public List<Event> getEvents() {
+      List<Event> events = new ArrayList<>();
+      for (Map<Event, Integer> stripe : eventStripes) {
+        for (Map.Entry<Event, Integer> entry : stripe.entrySet()) {
+          for (int i = 0; i < entry.getValue(); i++) {
+            events.add(entry.getKey());
+          }
+        }
+      }
+      return events;
+    }
+
+    /**
+     * Returns a read-only list of the events that {@code attendee} attends, sorted by start time.
+     */
+    public List<Event> getEvents(String attendee) {
+      AttendeeEvents attendeeEvents = getAttendeeEvents(attendee);
+      return attendeeEvents == null ? Collections.emptyList() : attendeeEvents.events;
+    }
+
+    /**
+     * Returns the merged busy times of each of {@code attendees} that overlap {@code window}. The
+     * times of each attendee are sorted and do not overlap, but the times of different attendees
+     * may.
+     */
+    @Override
+    public List<TimeRange> getBusyTimes(Collection<String> attendees, TimeRange window) {
+      IntervalList busyTimes = new IntervalList();
+      addBusyTimes(attendees, window, busyTimes);
+      return busyTimes.toTimeRanges();
+    }
+
+    @Override
+    public void addBusyTimes(
+        Collection<String> attendees, TimeRange window, IntervalList busyTimes) {
+      for (String attendee : attendees) {
+        AttendeeEvents attendeeEvents = getAttendeeEvents(attendee);
+        if (attendeeEvents != null) {
+          attendeeEvents.addMergedTimes(window, busyTimes);
+        }
+      }
+    }
+
+    @Override
+    public BitSet getBusyMinutes(Collection<String> attendees) {
+      BitSet busyMinutes = new BitSet(TimeRange.WHOLE_DAY.duration());
+      for (String attendee : attendees) {
+        AttendeeEvents attendeeEvents = getAttendeeEvents(attendee);
+        if (attendeeEvents != null) {
+          busyMinutes.or(attendeeEvents.busyMinutes);
+        }
+      }
+      return busyMinutes;
+    }
+
+    private AttendeeEvents getAttendeeEvents(String attendee) {
+      return attendeeStripes[stripeOf(attendee)].get(attendee);
+    }
+
+    /**
+     * Returns a snapshot with the changes applied, sharing every untouched stripe and attendee with
+     * this one, or this snapshot if nothing changes.
+     */
+    private Snapshot apply(Collection<Event> added, Collection<Event> removed, long nextVersion) {
+      Map<Event, Integer>[] nextEventStripes = eventStripes.clone();
+      // The stripes copied so far, which can be changed in place.
+      boolean[] copiedEventStripes = new boolean[STRIPE_COUNT];
+      // The new event lists of the touched attendees.
+      Map<String, List<Event>> changedAttendees = new HashMap<>();
+
+      for (Event event : removed) {
+        int stripe = stripeOf(event);
+        Integer count = nextEventStripes[stripe].get(event);
+        if (count == null) {
+          continue;
+        }
+        copyStripe(nextEventStripes, copiedEventStripes, stripe);
+        if (count == 1) {
+          nextEventStripes[stripe].remove(event);
+        } else {
+          nextEventStripes[stripe].put(event, count - 1);
+        }
+        for (String attendee : event.getAttendees()) {
+          changedAttendees.computeIfAbsent(attendee, this::copyEvents).remove(event);
+        }
+      }
+      for (Event event : added) {
+        int stripe = stripeOf(event);
+        copyStripe(nextEventStripes, copiedEventStripes, stripe);
+        nextEventStripes[stripe].merge(event, 1, Integer::sum);
+        for (String attendee : event.getAttendees()) {
+          changedAttendees.computeIfAbsent(attendee, this::copyEvents).add(event);
+        }
+      }
+
+      boolean changed = false;
+      for (boolean copied : copiedEventStripes) {
+        changed |= copied;
+      }
+      if (!changed) {
+        return this;
+      }
+
+      Map<String, AttendeeEvents>[] nextAttendeeStripes = attendeeStripes.clone();
+      boolean[] copiedAttendeeStripes = new boolean[STRIPE_COUNT];
+      for (Map.Entry<String, List<Event>> entry : changedAttendees.entrySet()) {
+        int stripe = stripeOf(entry.getKey());
+        copyStripe(nextAttendeeStripes, copiedAttendeeStripes, stripe);
+        if (entry.getValue().isEmpty()) {
+          nextAttendeeStripes[stripe].remove(entry.getKey());
+        } else {
+          nextAttendeeStripes[stripe].put(entry.getKey(), new AttendeeEvents(entry.getValue()));
+        }
+      }
+      return new Snapshot(nextVersion, nextEventStripes, nextAttendeeStripes);
+    }
+
+    /**
+     * Returns a snapshot with the events of {@code builder} added, taking over the builder's
+     * structures wherever this snapshot has nothing to merge them with.
+     */
+    private Snapshot merge(Builder builder, long nextVersion) {
+      if (builder.published) {
+        throw new IllegalStateException("The builder has already published");
+      }
+      builder.published = true;
+
+      Map<Event, Integer>[] nextEventStripes = eventStripes.clone();
+      for (int stripe = 0; stripe < STRIPE_COUNT; stripe++) {
+        Map<Event, Integer> added = builder.eventStripes[stripe];
+        if (added.isEmpty()) {
+          continue;
+        }
+        if (nextEventStripes[stripe].isEmpty()) {
+          nextEventStripes[stripe] = added;
+        } else {
+          Map<Event, Integer> merged = new HashMap<>(nextEventStripes[stripe]);
+          added.forEach((event, count) -> merged.merge(event, count, Integer::sum));
+          nextEventStripes[stripe] = merged;
+        }
+      }
+
+      Map<String, AttendeeEvents>[] nextAttendeeStripes = attendeeStripes.clone();
+      boolean[] copiedAttendeeStripes = new boolean[STRIPE_COUNT];
+      for (Map.Entry<String, List<Event>> entry : builder.eventsByAttendee.entrySet()) {
+        List<Event> events = entry.getValue();
+        if (getAttendeeEvents(entry.getKey()) != null) {
+          events = copyEvents(entry.getKey());
+          events.addAll(entry.getValue());
+        }
+        int stripe = stripeOf(entry.getKey());
+        copyStripe(nextAttendeeStripes, copiedAttendeeStripes, stripe);
+        nextAttendeeStripes[stripe].put(entry.getKey(), new AttendeeEvents(events));
+        // The snapshot has its own structures for the attendee now, so the list can go.
+        entry.setValue(Collections.emptyList());
+      }
+      return new Snapshot(nextVersion, nextEventStripes, nextAttendeeStripes);
+    }
+
+    private List<Event> copyEvents(String attendee) {
+      return new ArrayList<>(getEvents(attendee));
+    }
+
+    private static <K, V> void copyStripe(Map<K, V>[] stripes, boolean[] copied, int stripe) {
+      if (!copied[stripe]) {
+        stripes[stripe] = new HashMap<>(stripes[stripe]);
+        copied[stripe] = true;
+      }
+    }
+  }
+
+  /** The events of one attendee, in the forms that queries need. */
+  private static final class AttendeeEvents {
+    private static final Comparator<Event> ORDER_BY_START =
+        Comparator.comparing(Event::getWhen, TimeRange.ORDER_BY_START);
+
+    // The attendee's events, sorted by start time. Queries only read the merged times below.
+    private final List<Event> events;
+    // The attendee's busy times, merged, sorted by start and without overlaps, so that the ends
+    // are sorted too.
+    private final int[] mergedStarts;
+    private final int[] mergedEnds;
+    // The attendee's day as a bitmap with one bit per minute, set when the attendee is busy.
+    private final BitSet busyMinutes = new BitSet(TimeRange.WHOLE_DAY.duration());
+
+    AttendeeEvents(List<Event> events) {
+      Event[] sortedEvents = events.toArray(new Event[0]);
+      Arrays.sort(sortedEvents, ORDER_BY_START);
+      this.events = Collections.unmodifiableList(Arrays.asList(sortedEvents));
+      IntervalList merged = new IntervalList(events.size());
+      for (Event event : events) {
+        // The binary search over the merged ends relies on no range ending before it starts.
+        if (event.getWhen().end() < event.getWhen().start()) {
+          throw new IllegalArgumentException("The end of an event cannot come before its start.");
+        }
+        merged.add(event.getWhen().start(), event.getWhen().end());
+      }
+      merged.sortAndMerge();
+      mergedStarts = new int[merged.size()];
+      mergedEnds = new int[merged.size()];
+      for (int i = 0; i < merged.size(); i++) {
+        mergedStarts[i] = merged.start(i);
+        mergedEnds[i] = merged.end(i);
+      }
+      for (Event event : events) {
+        // Only the part of the event within the day can be represented.
+        int start = Math.max(event.getWhen().start(), TimeRange.WHOLE_DAY.start());
+        int end = Math.min(event.getWhen().end(), TimeRange.WHOLE_DAY.end());
+        if (start < end) {
+          busyMinutes.set(start, end);
+        }
+      }
+    }
+
+    /** Appends the merged busy times that overlap {@code window} to {@code busyTimes}. */
+    void addMergedTimes(TimeRange window, IntervalList busyTimes) {
+      // Find the first time that ends after the window starts.
+      int low = 0;
+      int high = mergedEnds.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (mergedEnds[middle] <= window.start()) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      for (int i = low; i < mergedStarts.length && mergedStarts[i] < window.end(); i++) {
+        busyTimes.add(mergedStarts[i], mergedEnds[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,56 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class WorkingHours {
+  private static final TimeRange NINE_TO_FIVE = TimeRange.fromStartEnd(
+      TimeRange.getTimeInMinutes(9, 0), TimeRange.getTimeInMinutes(17, 0), false);
+  private static final TimeRange EARLY_SHIFT = TimeRange.fromStartEnd(
+      TimeRange.getTimeInMinutes(7, 0), TimeRange.getTimeInMinutes(15, 0), false);
+  private static final TimeRange LATE_SHIFT = TimeRange.fromStartEnd(
+      TimeRange.getTimeInMinutes(11, 0), TimeRange.getTimeInMinutes(19, 0), false);
+  private static final TimeRange MORNING = TimeRange.fromStartEnd(
+      TimeRange.getTimeInMinutes(8, 0), TimeRange.getTimeInMinutes(12, 0), false);
+  private static final TimeRange AFTERNOON = TimeRange.fromStartEnd(
+      TimeRange.getTimeInMinutes(13, 0), TimeRange.getTimeInMinutes(17, 0), false);
+
+  // The working hours of the people in Events; everyone else can meet at any time.
+  public static final Map<String, Collection<TimeRange>> hours;
+
+  static {
+    Map<String, Collection<TimeRange>> workingHours = new HashMap<>();
+    workingHours.put("Amelia", Arrays.asList(NINE_TO_FIVE));
+    workingHours.put("Ava", Arrays.asList(EARLY_SHIFT));
+    workingHours.put("Emma", Arrays.asList(NINE_TO_FIVE));
+    workingHours.put("Isabella", Arrays.asList(MORNING, AFTERNOON));
+    workingHours.put("James", Arrays.asList(LATE_SHIFT));
+    workingHours.put("Liam", Arrays.asList(NINE_TO_FIVE));
+    workingHours.put("Logan", Arrays.asList(EARLY_SHIFT));
+    workingHours.put("Noah", Arrays.asList(NINE_TO_FIVE));
+    workingHours.put("Oliver", Arrays.asList(MORNING, AFTERNOON));
+    workingHours.put("Olivia", Arrays.asList(LATE_SHIFT));
+    hours = Collections.unmodifiableMap(workingHours);
+  }
+
+  private WorkingHours() {
+    // Disallow instances.
+  }
+}
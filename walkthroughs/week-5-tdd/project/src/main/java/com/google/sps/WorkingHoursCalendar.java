@@ -0,0 +1,194 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A calendar that adds the time outside each attendee's working hours to the busy times of another
+ * calendar, so that no meeting is suggested while someone is off. The time off is compiled once,
+ * when the calendar is created, into sorted intervals and a minute bitmap per attendee, which
+ * queries then add to the busy times as they are. Attendees without working hours can meet at any
+ * time. Calendars are read-only if the calendar they wrap is, and can then be shared between
+ * threads.
+ */
+public final class WorkingHoursCalendar implements BusyCalendar {
+  private final BusyCalendar calendar;
+  private final Map<String, TimeOff> timeOffByAttendee;
+
+  /**
+   * Creates a new calendar.
+   *
+   * @param calendar The calendar with the attendees' events. Must be non-null.
+   * @param workingHours The times of the day at which each attendee works, which may overlap. Must
+   *     be non-null.
+   */
+  public WorkingHoursCalendar(
+      BusyCalendar calendar, Map<String, ? extends Collection<TimeRange>> workingHours) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("calendar cannot be null");
+    }
+
+    if (workingHours == null) {
+      throw new IllegalArgumentException("workingHours cannot be null");
+    }
+
+    this.calendar = calendar;
+    this.timeOffByAttendee = new HashMap<>();
+    for (Map.Entry<String, ? extends Collection<TimeRange>> entry : workingHours.entrySet()) {
+      timeOffByAttendee.put(entry.getKey(), new TimeOff(entry.getValue()));
+    }
+  }
+
+  private WorkingHoursCalendar(WorkingHoursCalendar hours, BusyCalendar calendar) {
+    this.calendar = calendar;
+    this.timeOffByAttendee = hours.timeOffByAttendee;
+  }
+
+  /**
+   * Returns a calendar with the same working hours on top of {@code calendar}, such as a newer
+   * snapshot of the same events. The compiled time off is shared, not compiled again.
+   *
+   * @param calendar The calendar with the attendees' events. Must be non-null.
+   */
+  public WorkingHoursCalendar withCalendar(BusyCalendar calendar) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("calendar cannot be null");
+    }
+
+    return new WorkingHoursCalendar(this, calendar);
+  }
+
+  /**
+   * Returns the time off of every attendee as recurring events that take place every day forever,
+   * for calendars spanning several days, such as {@code HorizonCalendar}.
+   */
+  public List<RecurringEvent> getTimeOffEvents() {
+    List<RecurringEvent> timeOffEvents = new ArrayList<>();
+    for (Map.Entry<String, TimeOff> entry : timeOffByAttendee.entrySet()) {
+      TimeOff timeOff = entry.getValue();
+      for (int i = 0; i < timeOff.size(); i++) {
+        timeOffEvents.add(new RecurringEvent("Outside working hours",
+            TimeRange.fromStartEnd(timeOff.start(i), timeOff.end(i), false),
+            Collections.singletonList(entry.getKey()), RecurringEvent.DAILY,
+            RecurringEvent.FOREVER, Collections.emptyList()));
+      }
+    }
+    return timeOffEvents;
+  }
+
+  @Override
+  public long getVersion() {
+    return calendar.getVersion();
+  }
+
+  @Override
+  public List<TimeRange> getBusyTimes(Collection<String> attendees, TimeRange window) {
+    List<TimeRange> busyTimes = new ArrayList<>(calendar.getBusyTimes(attendees, window));
+    for (String attendee : attendees) {
+      TimeOff timeOff = timeOffByAttendee.get(attendee);
+      if (timeOff != null) {
+        for (int i = 0; i < timeOff.size(); i++) {
+          if (timeOff.start(i) < window.end() && timeOff.end(i) > window.start()) {
+            busyTimes.add(TimeRange.fromStartEnd(timeOff.start(i), timeOff.end(i), false));
+          }
+        }
+      }
+    }
+    return busyTimes;
+  }
+
+  @Override
+  public void addBusyTimes(
+      Collection<String> attendees, TimeRange window, IntervalList busyTimes) {
+    calendar.addBusyTimes(attendees, window, busyTimes);
+    for (String attendee : attendees) {
+      TimeOff timeOff = timeOffByAttendee.get(attendee);
+      if (timeOff != null) {
+        for (int i = 0; i < timeOff.size(); i++) {
+          if (timeOff.start(i) < window.end() && timeOff.end(i) > window.start()) {
+            busyTimes.add(timeOff.start(i), timeOff.end(i));
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public BitSet getBusyMinutes(Collection<String> attendees) {
+    BitSet busyMinutes = calendar.getBusyMinutes(attendees);
+    for (String attendee : attendees) {
+      TimeOff timeOff = timeOffByAttendee.get(attendee);
+      if (timeOff != null) {
+        busyMinutes.or(timeOff.minutes);
+      }
+    }
+    return busyMinutes;
+  }
+
+  /** The time of the day outside an attendee's working hours. */
+  private static final class TimeOff {
+    private final int[] starts;
+    private final int[] ends;
+    private final BitSet minutes;
+
+    TimeOff(Collection<TimeRange> workingHours) {
+      BitSet workingMinutes = new BitSet(TimeRange.WHOLE_DAY.duration());
+      for (TimeRange hours : workingHours) {
+        // Only the part of the hours within the day can be represented.
+        int start = Math.max(hours.start(), TimeRange.WHOLE_DAY.start());
+        int end = Math.min(hours.end(), TimeRange.WHOLE_DAY.end());
+        if (start < end) {
+          workingMinutes.set(start, end);
+        }
+      }
+      minutes = new BitSet(TimeRange.WHOLE_DAY.duration());
+      minutes.set(TimeRange.WHOLE_DAY.start(), TimeRange.WHOLE_DAY.end());
+      minutes.andNot(workingMinutes);
+
+      IntervalList intervals = new IntervalList();
+      int start = minutes.nextSetBit(0);
+      while (start >= 0) {
+        int end = minutes.nextClearBit(start);
+        intervals.add(start, end);
+        start = minutes.nextSetBit(end);
+      }
+      starts = new int[intervals.size()];
+      ends = new int[intervals.size()];
+      for (int i = 0; i < intervals.size(); i++) {
+        starts[i] = intervals.start(i);
+        ends[i] = intervals.end(i);
+      }
+    }
+
+    int size() {
+      return starts.length;
+    }
+
+    int start(int index) {
+      return starts[index];
+    }
+
+    int end(int index) {
+      return ends[index];
+    }
+  }
+}
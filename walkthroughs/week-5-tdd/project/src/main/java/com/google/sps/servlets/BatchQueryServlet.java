@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.BusyCalendar;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.RecurringCalendar;
+import com.google.sps.RecurringEvents;
+import com.google.sps.TimeRange;
+import com.google.sps.VersionedEventStore;
+import com.google.sps.WorkingHours;
+import com.google.sps.WorkingHoursCalendar;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers many meeting requests in one round trip. The body is a JSON array of meeting requests
+ * and the response is a JSON array with the possible meeting times of each request, in the same
+ * order.
+ */
+@WebServlet("/batch-query")
+public class BatchQueryServlet extends HttpServlet {
+  // The query is safe to share between threads, so it is created once instead of on every
+  // request.
+  private static final FindMeetingQuery FIND_MEETING_QUERY = new FindMeetingQuery();
+
+  private VersionedEventStore eventStore;
+  // The working hours are compiled once and put on top of each snapshot, as in QueryServlet.
+  private WorkingHoursCalendar workingHours;
+  // The recurring events, expanded into the first day, as in QueryServlet.
+  private RecurringCalendar recurringEvents;
+
+  @Override
+  public void init() {
+    eventStore = SharedEventStore.get(getServletContext());
+    workingHours = new WorkingHoursCalendar(eventStore.snapshot(), WorkingHours.hours);
+    recurringEvents = new RecurringCalendar(
+        eventStore.snapshot(), Arrays.asList(RecurringEvents.recurringEvents));
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON to instances of MeetingRequest. The whole batch is read and checked before
+    // any of it is answered, so that one bad request rejects the batch without wasting work.
+    List<MeetingRequest> meetingRequests;
+    try {
+      meetingRequests = MeetingJsonCodec.readMeetingRequests(new JsonReader(request.getReader()));
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected an array of requests.");
+      return;
+    }
+
+    // The requests of a batch are answered in parallel against one immutable snapshot, so they all
+    // see the same events.
+    BusyCalendar calendar =
+        workingHours.withCalendar(recurringEvents.onDay(eventStore.snapshot(), 0));
+
+    // Start finding the possible meeting times of every request on the fork-join pool.
+    List<ForkJoinTask<Collection<TimeRange>>> tasks = new ArrayList<>();
+    for (MeetingRequest meetingRequest : meetingRequests) {
+      tasks.add(ForkJoinPool.commonPool().submit(
+          () -> FIND_MEETING_QUERY.query(calendar, meetingRequest)));
+    }
+
+    // Wait for every answer before writing anything, so that a failed request turns into an error
+    // instead of a truncated array sent with a success status.
+    List<Collection<TimeRange>> answers = new ArrayList<>(tasks.size());
+    try {
+      for (ForkJoinTask<Collection<TimeRange>> task : tasks) {
+        answers.add(task.join());
+      }
+    } catch (RuntimeException e) {
+      for (ForkJoinTask<Collection<TimeRange>> task : tasks) {
+        task.cancel(false);
+      }
+      log("Could not answer a batch of meeting requests", e);
+      response.sendError(
+          HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Could not answer the requests.");
+      return;
+    }
+
+    // Send the answers back in request order.
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter jsonWriter = new JsonWriter(
+        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    jsonWriter.beginArray();
+    for (Collection<TimeRange> answer : answers) {
+      MeetingJsonCodec.writeTimeRanges(jsonWriter, answer);
+    }
+    jsonWriter.endArray();
+    jsonWriter.flush();
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A JSON response body that is serialized to UTF-8 once and then sent as-is, with a strong ETag
+ * computed from the bytes. Clients that send the ETag back in {@code If-None-Match} get a 304 with
+ * no body. Instances are immutable; a servlet replaces its instance when the data changes version.
+ */
+final class CachedJsonResponse {
+  private final long version;
+  private final byte[] body;
+  private final String etag;
+
+  private CachedJsonResponse(long version, byte[] body) {
+    this.version = version;
+    this.body = body;
+    this.etag = computeEtag(body);
+  }
+
+  /** Serializes {@code value} with {@code gson} as the response for {@code version}. */
+  static CachedJsonResponse of(long version, Gson gson, Object value) {
+    return new CachedJsonResponse(version, gson.toJson(value).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Returns the version of the data this response was serialized from. */
+  long getVersion() {
+    return version;
+  }
+
+  /** Returns the ETag of this response, including the surrounding quotes. */
+  String getEtag() {
+    return etag;
+  }
+
+  /** Sends this response, or a 304 if the client already has it. */
+  void send(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setHeader("ETag", etag);
+    // Clients may keep the body but have to check back every time, since the data can change.
+    response.setHeader("Cache-Control", "no-cache");
+    if (matches(request.getHeader("If-None-Match"))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /**
+   * Returns whether an {@code If-None-Match} header value names this response. The header is
+   * either "*" or a comma-separated list of ETags, which are compared ignoring any weak prefix.
+   */
+  boolean matches(String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String computeEtag(byte[] body) {
+    byte[] digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256").digest(body);
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+    // The first 128 bits are plenty to tell versions apart.
+    StringBuilder etag = new StringBuilder("\"");
+    for (int i = 0; i < 16; i++) {
+      etag.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+      etag.append(Character.forDigit(digest[i] & 0xF, 16));
+    }
+    return etag.append('"').toString();
+  }
+}
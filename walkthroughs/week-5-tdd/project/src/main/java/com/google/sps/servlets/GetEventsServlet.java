@@ -14,23 +14,67 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.Event;
+import com.google.sps.RecurringEvent;
+import com.google.sps.RecurringEvents;
+import com.google.sps.TimeRange;
+import com.google.sps.VersionedEventStore;
+import com.google.sps.WorkingHours;
+import com.google.sps.WorkingHoursCalendar;
 import com.google.gson.Gson;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Lists the events of the first day, which is the day that the queries answer for: the events of
+ * the store, the occurrences of the recurring events, and the time outside each person's working
+ * hours, so that the page shows every event that keeps a meeting from being offered.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  private final Gson gson = new Gson();
+  private VersionedEventStore eventStore;
+  // The events of the first day that never change, as the queries see them.
+  private List<Event> fixedEvents;
+  private volatile CachedJsonResponse eventsResponse;
+
+  @Override
+  public void init() {
+    eventStore = SharedEventStore.get(getServletContext());
+    List<RecurringEvent> recurringEvents =
+        new ArrayList<>(Arrays.asList(RecurringEvents.recurringEvents));
+    recurringEvents.addAll(
+        new WorkingHoursCalendar(eventStore.snapshot(), WorkingHours.hours).getTimeOffEvents());
+    fixedEvents = new ArrayList<>();
+    for (RecurringEvent recurringEvent : recurringEvents) {
+      for (TimeRange when : recurringEvent.getOccurrences(TimeRange.WHOLE_DAY)) {
+        fixedEvents.add(new Event(recurringEvent.getTitle(), when, recurringEvent.getAttendees()));
+      }
+    }
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    // The page polls this endpoint and, while the events stay the same, mostly gets a 304 back.
+    getEventsResponse(eventStore.snapshot()).send(request, response);
+  }
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+  /** Returns the JSON of the events, serializing them again only if the snapshot is new. */
+  private CachedJsonResponse getEventsResponse(VersionedEventStore.Snapshot snapshot) {
+    CachedJsonResponse cached = eventsResponse;
+    if (cached == null || cached.getVersion() != snapshot.getVersion()) {
+      // Two requests may race to build the same response; both results are identical.
+      List<Event> events = new ArrayList<>(snapshot.getEvents());
+      events.addAll(fixedEvents);
+      cached = CachedJsonResponse.of(snapshot.getVersion(), gson, events);
+      eventsResponse = cached;
+    }
+    return cached;
   }
 }
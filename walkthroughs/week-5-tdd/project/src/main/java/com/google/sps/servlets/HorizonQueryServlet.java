@@ -0,0 +1,138 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.HorizonCalendar;
+import com.google.sps.MeetingRequest;
+import com.google.sps.RecurringEvent;
+import com.google.sps.RecurringEvents;
+import com.google.sps.TimeRange;
+import com.google.sps.VersionedEventStore;
+import com.google.sps.WorkingHours;
+import com.google.sps.WorkingHoursCalendar;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Finds the first meeting times over several days in one round trip. The body is a meeting
+ * request, and the {@code days} parameter gives the length of the horizon, e.g.
+ * {@code /horizon-query?days=30}. The number of times wanted is the {@code limit} parameter if
+ * given, or else the limit of the request. Both must be positive, and {@code days} can be at most
+ * {@code HorizonCalendar.MAX_DAYS}.
+ */
+@WebServlet("/horizon-query")
+public class HorizonQueryServlet extends HttpServlet {
+  private static final int DEFAULT_DAYS = 7;
+  private static final int DEFAULT_LIMIT = 10;
+
+  private VersionedEventStore eventStore;
+  // The recurring events of every horizon: the app's own, plus each attendee's time off, which
+  // repeats every day so that no meeting is suggested outside working hours on any day.
+  private List<RecurringEvent> recurringEvents;
+  // The calendar of the latest snapshot seen, which is built again only when the events change.
+  private volatile SnapshotCalendar snapshotCalendar;
+
+  @Override
+  public void init() {
+    eventStore = SharedEventStore.get(getServletContext());
+    recurringEvents = new ArrayList<>(Arrays.asList(RecurringEvents.recurringEvents));
+    recurringEvents.addAll(
+        new WorkingHoursCalendar(eventStore.snapshot(), WorkingHours.hours).getTimeOffEvents());
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON to an instance of MeetingRequest.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = MeetingJsonCodec.readMeetingRequest(new JsonReader(request.getReader()));
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
+
+    int days;
+    int limit;
+    try {
+      days = getIntParameter(request, "days", DEFAULT_DAYS);
+      int requestLimit = meetingRequest.getLimit() > 0 ? meetingRequest.getLimit() : DEFAULT_LIMIT;
+      limit = getIntParameter(request, "limit", requestLimit);
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "days and limit must be numbers.");
+      return;
+    }
+    // Both come from the client, and a huge horizon would keep a request thread busy for minutes.
+    if (days <= 0 || days > HorizonCalendar.MAX_DAYS || limit <= 0) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "days must be between 1 and " + HorizonCalendar.MAX_DAYS + ", and limit positive.");
+      return;
+    }
+
+    // Find the first possible meeting times.
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+    Collection<TimeRange> answer = findMeetingQuery.queryHorizon(
+        getCalendar(eventStore.snapshot()), meetingRequest, days, limit);
+
+    // Convert the times to JSON straight into the response.
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter jsonWriter = new JsonWriter(
+        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    MeetingJsonCodec.writeTimeRanges(jsonWriter, answer);
+    jsonWriter.flush();
+  }
+
+  /** Returns the horizon calendar of {@code snapshot}, building it only if the snapshot is new. */
+  private HorizonCalendar getCalendar(VersionedEventStore.Snapshot snapshot) {
+    SnapshotCalendar cached = snapshotCalendar;
+    if (cached == null || cached.version != snapshot.getVersion()) {
+      // Two requests may race to build the same calendar; both results are identical. Recurring
+      // events are kept as rules, so a long horizon costs no more memory than a short one.
+      cached = new SnapshotCalendar(snapshot.getVersion(),
+          new HorizonCalendar(snapshot.getEvents(), recurringEvents));
+      snapshotCalendar = cached;
+    }
+    return cached.calendar;
+  }
+
+  private static int getIntParameter(HttpServletRequest request, String name, int defaultValue) {
+    String value = request.getParameter(name);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
+  /** A horizon calendar together with the version of the snapshot it was built from. */
+  private static final class SnapshotCalendar {
+    private final long version;
+    private final HorizonCalendar calendar;
+
+    SnapshotCalendar(long version, HorizonCalendar calendar) {
+      this.version = version;
+      this.calendar = calendar;
+    }
+  }
+}
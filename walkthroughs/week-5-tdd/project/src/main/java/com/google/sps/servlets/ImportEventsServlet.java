@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.VersionedEventStore;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Adds many events at once. The body is newline-delimited JSON with one event per line, in the
+ * same format as {@code /get-events}. With {@code /import-events?replace=true} the imported events
+ * replace every event in the store. Either all the events are published, as one new version of
+ * the calendar, or none are, and the response gives the number of events imported and the new
+ * version.
+ */
+@WebServlet("/import-events")
+public class ImportEventsServlet extends HttpServlet {
+  private VersionedEventStore eventStore;
+
+  @Override
+  public void init() {
+    eventStore = SharedEventStore.get(getServletContext());
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Parse the events as the body streams in, and file each one straight into the next snapshot,
+    // so that neither the body nor the events are ever collected first.
+    VersionedEventStore.Builder builder = eventStore.newBuilder();
+    try {
+      MeetingJsonCodec.readEvents(
+          new JsonReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)),
+          builder::add);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    VersionedEventStore.Snapshot snapshot;
+    if (Boolean.parseBoolean(request.getParameter("replace"))) {
+      snapshot = builder.publishReplacingAll();
+    } else {
+      snapshot = builder.publish();
+    }
+
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter jsonWriter = new JsonWriter(
+        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    jsonWriter.beginObject();
+    jsonWriter.name("imported").value(builder.size());
+    jsonWriter.name("version").value(snapshot.getVersion());
+    jsonWriter.endObject();
+    jsonWriter.flush();
+  }
+}
@@ -0,0 +1,273 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.RoomSlot;
+import com.google.sps.TimeRange;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads meeting requests and events from and writes meeting times to JSON streams by hand, in the
+ * same format that Gson produces for {@code MeetingRequest}, {@code Event} and {@code TimeRange}.
+ * This skips Gson's reflection and the intermediate strings. The codec has no state and is shared
+ * by all servlets.
+ */
+final class MeetingJsonCodec {
+  private MeetingJsonCodec() {
+    // Disallow instances.
+  }
+
+  /**
+   * Reads one meeting request object. Missing or null attendee lists are empty, a missing limit is
+   * 0, and unknown fields are skipped.
+   *
+   * @throws JsonParseException if the JSON is malformed or is not a meeting request.
+   */
+  static MeetingRequest readMeetingRequest(JsonReader reader) throws IOException {
+    Collection<String> attendees = new ArrayList<>();
+    Collection<String> optionalAttendees = new ArrayList<>();
+    long duration = 0;
+    int limit = 0;
+    try {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "attendees":
+            readStrings(reader, attendees);
+            break;
+          case "optional_attendees":
+            readStrings(reader, optionalAttendees);
+            break;
+          case "duration":
+            duration = reader.nextLong();
+            break;
+          case "limit":
+            limit = reader.nextInt();
+            break;
+          default:
+            reader.skipValue();
+            break;
+        }
+      }
+      reader.endObject();
+    } catch (IllegalStateException | NumberFormatException | MalformedJsonException
+        | EOFException e) {
+      // JsonReader reports values of the wrong type with the first two, and a malformed or
+      // truncated body with the others.
+      throw new JsonParseException(e);
+    }
+
+    if (duration < 0) {
+      throw new JsonParseException("duration cannot be negative");
+    }
+
+    if (limit < 0) {
+      throw new JsonParseException("limit cannot be negative");
+    }
+
+    MeetingRequest request = new MeetingRequest(attendees, duration);
+    request.setLimit(limit);
+    for (String attendee : optionalAttendees) {
+      request.addOptionalAttendee(attendee);
+    }
+    return request;
+  }
+
+  /**
+   * Reads a JSON array of meeting request objects.
+   *
+   * @throws JsonParseException if the JSON is malformed or is not an array of meeting requests.
+   */
+  static List<MeetingRequest> readMeetingRequests(JsonReader reader) throws IOException {
+    List<MeetingRequest> requests = new ArrayList<>();
+    try {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        requests.add(readMeetingRequest(reader));
+      }
+      reader.endArray();
+    } catch (IllegalStateException | MalformedJsonException | EOFException e) {
+      throw new JsonParseException(e);
+    }
+    return requests;
+  }
+
+  /**
+   * Reads event objects one after another until the end of the stream, as in newline-delimited
+   * JSON, and passes each one to {@code consumer} as soon as it is parsed, so that neither the
+   * stream nor the events are ever held in memory as a whole. Within one stream, every event of an
+   * attendee shares one string for the attendee's name. Unknown fields are skipped.
+   *
+   * @return The number of events read.
+   * @throws JsonParseException if the JSON is malformed or an object is not an event. The message
+   *     gives the number of the event, counting from 1. The events before it have been passed on.
+   */
+  static int readEvents(JsonReader reader, Consumer<Event> consumer) throws IOException {
+    // Only a lenient reader reads more than one top-level value.
+    reader.setLenient(true);
+    // Only lives as long as the stream, so that names are not kept once their events are gone.
+    Map<String, String> names = new HashMap<>();
+    int count = 0;
+    try {
+      while (hasNextValue(reader)) {
+        consumer.accept(readEvent(reader, names));
+        count++;
+      }
+    } catch (JsonParseException | IllegalStateException | NumberFormatException
+        | MalformedJsonException | EOFException e) {
+      throw new JsonParseException("Event " + (count + 1) + " is invalid", e);
+    }
+    return count;
+  }
+
+  /** Writes {@code times} as a JSON array of objects with a start and a duration. */
+  static void writeTimeRanges(JsonWriter writer, Collection<TimeRange> times) throws IOException {
+    writer.beginArray();
+    for (TimeRange time : times) {
+      writer.beginObject();
+      writer.name("start").value(time.start());
+      writer.name("duration").value(time.duration());
+      writer.endObject();
+    }
+    writer.endArray();
+  }
+
+  /**
+   * Writes {@code slots} as a JSON array of objects with a time, in the same form as
+   * {@link #writeTimeRanges}, and a room with a name and a capacity.
+   */
+  static void writeRoomSlots(JsonWriter writer, Collection<RoomSlot> slots) throws IOException {
+    writer.beginArray();
+    for (RoomSlot slot : slots) {
+      writer.beginObject();
+      writer.name("when").beginObject();
+      writer.name("start").value(slot.getWhen().start());
+      writer.name("duration").value(slot.getWhen().duration());
+      writer.endObject();
+      writer.name("room").beginObject();
+      writer.name("name").value(slot.getRoom().getName());
+      writer.name("capacity").value(slot.getRoom().getCapacity());
+      writer.endObject();
+      writer.endObject();
+    }
+    writer.endArray();
+  }
+
+  /** Returns whether another top-level value follows. */
+  private static boolean hasNextValue(JsonReader reader) throws IOException {
+    try {
+      return reader.peek() != JsonToken.END_DOCUMENT;
+    } catch (EOFException e) {
+      // JsonReader reports a stream without any value this way, which is an empty import here.
+      return false;
+    }
+  }
+
+  private static Event readEvent(JsonReader reader, Map<String, String> names)
+      throws IOException {
+    String title = "";
+    TimeRange when = null;
+    Collection<String> eventAttendees = new ArrayList<>();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "title":
+          title = reader.nextString();
+          break;
+        case "when":
+          when = readTimeRange(reader);
+          break;
+        case "attendees":
+          readStrings(reader, eventAttendees);
+          break;
+        default:
+          reader.skipValue();
+          break;
+      }
+    }
+    reader.endObject();
+
+    if (when == null) {
+      throw new JsonParseException("when is missing");
+    }
+
+    List<String> internedAttendees = new ArrayList<>(eventAttendees.size());
+    for (String attendee : eventAttendees) {
+      internedAttendees.add(names.computeIfAbsent(attendee, name -> name));
+    }
+    return new Event(title, when, internedAttendees);
+  }
+
+  private static TimeRange readTimeRange(JsonReader reader) throws IOException {
+    int start = 0;
+    int duration = 0;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "start":
+          start = reader.nextInt();
+          break;
+        case "duration":
+          duration = reader.nextInt();
+          break;
+        default:
+          reader.skipValue();
+          break;
+      }
+    }
+    reader.endObject();
+
+    if (start < 0) {
+      throw new JsonParseException("start cannot be negative");
+    }
+
+    if (duration < 0) {
+      throw new JsonParseException("duration cannot be negative");
+    }
+
+    // The end must fit in an int, or it would wrap around to before the start.
+    if ((long) start + duration > Integer.MAX_VALUE) {
+      throw new JsonParseException("The event ends too late");
+    }
+    return TimeRange.fromStartDuration(start, duration);
+  }
+
+  private static void readStrings(JsonReader reader, Collection<String> strings)
+      throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return;
+    }
+    reader.beginArray();
+    while (reader.hasNext()) {
+      strings.add(reader.nextString());
+    }
+    reader.endArray();
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.LatencyHistogram;
+import com.google.sps.QueryMetrics;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sends the metrics of the queries answered by {@code /query} so far: for each phase and for the
+ * whole query, the number of queries and the 50th, 99th and 99.9th percentile and maximum of their
+ * latency in microseconds, and the same for the bytes each query allocated.
+ */
+@WebServlet("/query-metrics")
+public class QueryMetricsServlet extends HttpServlet {
+  private static final double NANOS_PER_MICRO = 1000.0;
+
+  private QueryMetrics metrics;
+
+  @Override
+  public void init() {
+    metrics = SharedQueryMetrics.get(getServletContext());
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    // The metrics change with every query, so they must never be served from a cache.
+    response.setHeader("Cache-Control", "no-store");
+    JsonWriter jsonWriter = new JsonWriter(
+        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    jsonWriter.beginObject();
+    jsonWriter.name("latency_us").beginObject();
+    for (QueryMetrics.Phase phase : QueryMetrics.Phase.values()) {
+      writeHistogram(jsonWriter.name(phase.name().toLowerCase(Locale.ROOT)),
+          metrics.getPhaseNanos(phase), NANOS_PER_MICRO);
+    }
+    writeHistogram(jsonWriter.name("total"), metrics.getTotalNanos(), NANOS_PER_MICRO);
+    jsonWriter.endObject();
+    writeHistogram(jsonWriter.name("allocated_bytes"), metrics.getAllocatedBytes(), 1);
+    jsonWriter.endObject();
+    jsonWriter.flush();
+  }
+
+  private static void writeHistogram(JsonWriter jsonWriter, LatencyHistogram histogram,
+      double divisor) throws IOException {
+    jsonWriter.beginObject();
+    jsonWriter.name("count").value(histogram.getCount());
+    jsonWriter.name("p50").value(histogram.getValueAtQuantile(0.5) / divisor);
+    jsonWriter.name("p99").value(histogram.getValueAtQuantile(0.99) / divisor);
+    jsonWriter.name("p999").value(histogram.getValueAtQuantile(0.999) / divisor);
+    jsonWriter.name("max").value(histogram.getMax() / divisor);
+    jsonWriter.endObject();
+  }
+}
@@ -14,14 +14,29 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.BusyCalendar;
 import com.google.sps.FindMeetingQuery;
+import com.google.sps.MappedCalendar;
 import com.google.sps.MeetingRequest;
+import com.google.sps.QueryMetrics;
+import com.google.sps.QueryResultCache;
+import com.google.sps.RecurringCalendar;
+import com.google.sps.RecurringEvents;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.sps.VersionedEventStore;
+import com.google.sps.WorkingHours;
+import com.google.sps.WorkingHoursCalendar;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.function.Supplier;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,23 +44,142 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
+  // Set this system property to the path of a file written by MappedCalendar.write to serve that
+  // calendar instead of the built-in events.
+  private static final String CALENDAR_FILE_PROPERTY = "com.google.sps.calendarFile";
+
+  // Room for the results of every meeting invite being edited at once, with plenty to spare.
+  private static final int CACHE_SIZE = 1024;
+
+  // Returns the calendar that a query should run against. Each query takes one snapshot and uses
+  // it throughout, so it never sees events change halfway.
+  private Supplier<BusyCalendar> snapshots;
+
+  // Nobody should be offered a meeting outside their working hours. The hours are compiled once
+  // and put on top of each snapshot.
+  private WorkingHoursCalendar workingHours;
+
+  // Recurring events are kept as rules and expanded into each query's window. Queries are about
+  // the first day of the recurring events.
+  private RecurringCalendar recurringEvents;
+
+  // Clients repeat the same queries while a meeting invite is edited, so recent results are kept
+  // until the calendar changes. The two kinds of query have different results.
+  private final QueryResultCache queryCache = new QueryResultCache(CACHE_SIZE);
+  private final QueryResultCache maximizingQueryCache = new QueryResultCache(CACHE_SIZE);
+
+  // The time and memory each query takes, phase by phase, reported by /query-metrics.
+  private QueryMetrics metrics;
+
+  @Override
+  public void init() throws ServletException {
+    String calendarFile = System.getProperty(CALENDAR_FILE_PROPERTY);
+    BusyCalendar firstSnapshot;
+    if (calendarFile == null) {
+      // Share the app's event store, which publishes a new immutable snapshot on every change, so
+      // queries never wait for writers.
+      VersionedEventStore eventStore = SharedEventStore.get(getServletContext());
+      snapshots = eventStore::snapshot;
+      firstSnapshot = eventStore.snapshot();
+    } else {
+      try {
+        // The file is mapped, not loaded, so even calendars of millions of events open instantly.
+        MappedCalendar mappedCalendar = MappedCalendar.open(Paths.get(calendarFile));
+        snapshots = () -> mappedCalendar;
+        firstSnapshot = mappedCalendar;
+      } catch (IOException e) {
+        throw new ServletException("Cannot open calendar file " + calendarFile, e);
+      }
+    }
+    workingHours = new WorkingHoursCalendar(firstSnapshot, WorkingHours.hours);
+    recurringEvents =
+        new RecurringCalendar(firstSnapshot, Arrays.asList(RecurringEvents.recurringEvents));
+    metrics = SharedQueryMetrics.get(getServletContext());
+  }
+
+  /**
+   * Sends the counters of the result caches, so that their size can be tuned.
+   */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter jsonWriter = new JsonWriter(
+        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    jsonWriter.beginObject();
+    writeCacheStats(jsonWriter.name("query"), queryCache);
+    writeCacheStats(jsonWriter.name("maximize_optional"), maximizingQueryCache);
+    jsonWriter.endObject();
+    jsonWriter.flush();
+  }
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    QueryMetrics.Sample sample = metrics.start();
+    try {
+      findMeetingTimes(request, response);
+    } finally {
+      sample.close();
+    }
+  }
 
+  private void findMeetingTimes(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
     // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
-
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = MeetingJsonCodec.readMeetingRequest(new JsonReader(request.getReader()));
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
+    QueryMetrics.lap(QueryMetrics.Phase.PARSE);
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+    // Find the possible meeting times, with the engine chosen by the optional "engine" parameter
+    // (e.g. /query?engine=minute_bitmap) so that the engines can be compared on real calendars.
+    FindMeetingQuery.Engine engine = FindMeetingQuery.Engine.INTERVAL_MERGE;
+    String engineParameter = request.getParameter("engine");
+    if (engineParameter != null) {
+      try {
+        engine = FindMeetingQuery.Engine.valueOf(engineParameter.toUpperCase());
+      } catch (IllegalArgumentException e) {
+        response.sendError(
+            HttpServletResponse.SC_BAD_REQUEST, "Unknown engine: " + engineParameter);
+        return;
+      }
+    }
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery(engine);
+    BusyCalendar calendar =
+        workingHours.withCalendar(recurringEvents.onDay(snapshots.get(), 0));
+    // With /query?maximize_optional=true, return the times that fit the most optional attendees
+    // instead of falling back to the mandatory attendees only.
+    Collection<TimeRange> answer;
+    if (Boolean.parseBoolean(request.getParameter("maximize_optional"))) {
+      answer = maximizingQueryCache.get(meetingRequest, calendar.getVersion(),
+          uncached -> findMeetingQuery.queryMaximizingOptionalAttendance(calendar, uncached));
+    } else {
+      answer = queryCache.get(meetingRequest, engine, calendar.getVersion(),
+          uncached -> findMeetingQuery.query(calendar, uncached));
+    }
 
-    // Send the JSON back as the response
+    // Convert the times to JSON straight into the response.
+    QueryMetrics.mark();
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter jsonWriter = new JsonWriter(
+        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    MeetingJsonCodec.writeTimeRanges(jsonWriter, answer);
+    jsonWriter.flush();
+    QueryMetrics.lap(QueryMetrics.Phase.WRITE);
+  }
+
+  private static void writeCacheStats(JsonWriter jsonWriter, QueryResultCache cache)
+      throws IOException {
+    jsonWriter.beginObject();
+    jsonWriter.name("hits").value(cache.getHitCount());
+    jsonWriter.name("misses").value(cache.getMissCount());
+    jsonWriter.name("evictions").value(cache.getEvictionCount());
+    jsonWriter.name("size").value(cache.size());
+    jsonWriter.endObject();
   }
 }
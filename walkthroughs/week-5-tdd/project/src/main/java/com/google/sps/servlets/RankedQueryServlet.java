@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.BusyCalendar;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.RecurringCalendar;
+import com.google.sps.RecurringEvents;
+import com.google.sps.SlotScorer;
+import com.google.sps.TimeRange;
+import com.google.sps.VersionedEventStore;
+import com.google.sps.WorkingHours;
+import com.google.sps.WorkingHoursCalendar;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Finds the best meetings of exactly the requested duration, best first. The body is a meeting
+ * request, whose limit says how many meetings to return, and the parameters choose the ranking:
+ * {@code policy} is {@code least_fragmentation} (the default) or {@code closest_to}, which needs
+ * {@code preferred}, a start time in minutes since the start of the day, and {@code step} is the
+ * number of minutes between the start times considered (15 by default, at most a day).
+ */
+@WebServlet("/ranked-query")
+public class RankedQueryServlet extends HttpServlet {
+  private static final FindMeetingQuery FIND_MEETING_QUERY = new FindMeetingQuery();
+
+  // Leftover free time shorter than this fits nothing else, so least_fragmentation avoids it.
+  private static final int MIN_USEFUL_MINUTES = 30;
+  private static final int DEFAULT_STEP = 15;
+  // The number of meetings returned when the request has no limit.
+  private static final int DEFAULT_LIMIT = 3;
+
+  private VersionedEventStore eventStore;
+  private WorkingHoursCalendar workingHours;
+  // The recurring events, expanded into the first day, as in QueryServlet.
+  private RecurringCalendar recurringEvents;
+
+  @Override
+  public void init() {
+    eventStore = SharedEventStore.get(getServletContext());
+    workingHours = new WorkingHoursCalendar(eventStore.snapshot(), WorkingHours.hours);
+    recurringEvents = new RecurringCalendar(
+        eventStore.snapshot(), Arrays.asList(RecurringEvents.recurringEvents));
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON to an instance of MeetingRequest.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = MeetingJsonCodec.readMeetingRequest(new JsonReader(request.getReader()));
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
+    if (meetingRequest.getLimit() == 0) {
+      meetingRequest.setLimit(DEFAULT_LIMIT);
+    }
+
+    SlotScorer scorer;
+    int step;
+    try {
+      scorer = parseScorer(request);
+      step = parseInt(request.getParameter("step"), DEFAULT_STEP);
+      // A step longer than the day would only ever reach the first start of each free time.
+      if (step <= 0 || step > TimeRange.WHOLE_DAY.duration()) {
+        throw new IllegalArgumentException(
+            "step must be between 1 and " + TimeRange.WHOLE_DAY.duration());
+      }
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    BusyCalendar calendar =
+        workingHours.withCalendar(recurringEvents.onDay(eventStore.snapshot(), 0));
+    List<TimeRange> answer = FIND_MEETING_QUERY.queryRanked(calendar, meetingRequest, scorer, step);
+
+    // Convert the times to JSON straight into the response.
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter jsonWriter = new JsonWriter(
+        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    MeetingJsonCodec.writeTimeRanges(jsonWriter, answer);
+    jsonWriter.flush();
+  }
+
+  private static SlotScorer parseScorer(HttpServletRequest request) {
+    String policy = request.getParameter("policy");
+    if (policy == null || policy.equals("least_fragmentation")) {
+      return SlotScorer.leastFragmentation(MIN_USEFUL_MINUTES);
+    }
+    if (policy.equals("closest_to")) {
+      String preferred = request.getParameter("preferred");
+      if (preferred == null) {
+        throw new IllegalArgumentException("closest_to needs a preferred start time");
+      }
+      return SlotScorer.closestTo(parseInt(preferred, 0));
+    }
+    throw new IllegalArgumentException("Unknown policy: " + policy);
+  }
+
+  private static int parseInt(String value, int defaultValue) {
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Expected a number: " + value);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.BusyCalendar;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.RecurringCalendar;
+import com.google.sps.RecurringEvents;
+import com.google.sps.RoomSlot;
+import com.google.sps.Rooms;
+import com.google.sps.VersionedEventStore;
+import com.google.sps.WorkingHours;
+import com.google.sps.WorkingHoursCalendar;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Finds the meeting times together with the rooms in which they can take place. The body is a
+ * meeting request and the response is a JSON array of slots, each with a time and a room.
+ */
+@WebServlet("/room-query")
+public class RoomQueryServlet extends HttpServlet {
+  private static final FindMeetingQuery FIND_MEETING_QUERY = new FindMeetingQuery();
+
+  private VersionedEventStore eventStore;
+  private VersionedEventStore roomBookings;
+  // The working hours are compiled once and put on top of each snapshot, as in QueryServlet.
+  private WorkingHoursCalendar workingHours;
+  // The recurring events, expanded into the first day, as in QueryServlet.
+  private RecurringCalendar recurringEvents;
+
+  @Override
+  public void init() {
+    eventStore = SharedEventStore.get(getServletContext());
+    roomBookings = SharedEventStore.getRoomBookings(getServletContext());
+    workingHours = new WorkingHoursCalendar(eventStore.snapshot(), WorkingHours.hours);
+    recurringEvents = new RecurringCalendar(
+        eventStore.snapshot(), Arrays.asList(RecurringEvents.recurringEvents));
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON to an instance of MeetingRequest.
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = MeetingJsonCodec.readMeetingRequest(new JsonReader(request.getReader()));
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
+
+    // Rooms are busy under their names in a store of their own. Only the attendees have working
+    // hours; rooms can be booked at any time.
+    BusyCalendar roomCalendar = roomBookings.snapshot();
+    BusyCalendar calendar =
+        workingHours.withCalendar(recurringEvents.onDay(eventStore.snapshot(), 0));
+    List<RoomSlot> answer = FIND_MEETING_QUERY.queryRooms(
+        calendar, meetingRequest, roomCalendar, Arrays.asList(Rooms.rooms));
+
+    // Convert the slots to JSON straight into the response.
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter jsonWriter = new JsonWriter(
+        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    MeetingJsonCodec.writeRoomSlots(jsonWriter, answer);
+    jsonWriter.flush();
+  }
+}
@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.Events;
+import com.google.sps.Rooms;
+import com.google.sps.VersionedEventStore;
+import java.util.Arrays;
+import javax.servlet.ServletContext;
+
+/**
+ * Gives every servlet of the app the same event store, so that a change made through one servlet
+ * is seen by all of them. The store starts out with the events of {@code Events}. The bookings of
+ * {@code Rooms}, which name their room as the attendee, are kept in a store of their own, so that
+ * rooms are never shown or queried as people.
+ */
+final class SharedEventStore {
+  private static final String ATTRIBUTE = SharedEventStore.class.getName();
+  private static final String ROOMS_ATTRIBUTE = ATTRIBUTE + ".rooms";
+
+  private SharedEventStore() {
+    // Disallow instances.
+  }
+
+  /** Returns the store of the app that {@code context} belongs to, creating it on first use. */
+  static VersionedEventStore get(ServletContext context) {
+    return get(context, ATTRIBUTE, Events.events);
+  }
+
+  /**
+   * Returns the store of the room bookings of the app that {@code context} belongs to, creating it
+   * on first use.
+   */
+  static VersionedEventStore getRoomBookings(ServletContext context) {
+    return get(context, ROOMS_ATTRIBUTE, Rooms.bookings);
+  }
+
+  private static VersionedEventStore get(
+      ServletContext context, String attribute, Event[] initialEvents) {
+    synchronized (context) {
+      VersionedEventStore store = (VersionedEventStore) context.getAttribute(attribute);
+      if (store == null) {
+        store = new VersionedEventStore(Arrays.asList(initialEvents));
+        context.setAttribute(attribute, store);
+      }
+      return store;
+    }
+  }
+}
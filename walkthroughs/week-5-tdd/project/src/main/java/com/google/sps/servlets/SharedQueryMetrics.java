@@ -0,0 +1,42 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.QueryMetrics;
+import javax.servlet.ServletContext;
+
+/**
+ * Gives every servlet of the app the same query metrics, so that the queries measured by one
+ * servlet can be reported by another.
+ */
+final class SharedQueryMetrics {
+  private static final String ATTRIBUTE = SharedQueryMetrics.class.getName();
+
+  private SharedQueryMetrics() {
+    // Disallow instances.
+  }
+
+  /** Returns the metrics of the app that {@code context} belongs to, creating them on first use. */
+  static QueryMetrics get(ServletContext context) {
+    synchronized (context) {
+      QueryMetrics metrics = (QueryMetrics) context.getAttribute(ATTRIBUTE);
+      if (metrics == null) {
+        metrics = new QueryMetrics();
+        context.setAttribute(ATTRIBUTE, metrics);
+      }
+      return metrics;
+    }
+  }
+}
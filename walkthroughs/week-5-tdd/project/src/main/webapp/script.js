@@ -92,10 +92,15 @@ function timeToString(totalMinutes) {
  * Request for possible meeting times.
  */
 class MeetingRequest {
-  constructor(duration, attendees, optional_attendees) {
+  /**
+   * The limit is the most meeting times the server should return; 0 returns
+   * all of them.
+   */
+  constructor(duration, attendees, optional_attendees, limit = 0) {
     this.duration = duration;
     this.attendees = attendees;
     this.optional_attendees = optional_attendees;
+    this.limit = limit;
   }
 }
 
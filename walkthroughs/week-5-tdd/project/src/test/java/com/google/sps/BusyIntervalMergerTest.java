@@ -0,0 +1,68 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BusyIntervalMergerTest {
+  @Test
+  public void emptyInput() {
+    List<TimeRange> actual = BusyIntervalMerger.merge(Collections.emptyList());
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+  }
+
+  @Test
+  public void unsortedInputIsSorted() {
+    List<TimeRange> actual = BusyIntervalMerger.merge(Arrays.asList(
+        TimeRange.fromStartDuration(600, 30),
+        TimeRange.fromStartDuration(60, 30),
+        TimeRange.fromStartDuration(300, 30)));
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(60, 30),
+        TimeRange.fromStartDuration(300, 30),
+        TimeRange.fromStartDuration(600, 30));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void overlappingNestedAndTouchingRangesAreCombined() {
+    // Ranges : |---A---|
+    //              |---B---|
+    //                |-C-|
+    //                      |--D--|     |-E-|
+    // Merged : |-----------------|     |-E-|
+    List<TimeRange> actual = BusyIntervalMerger.merge(Arrays.asList(
+        TimeRange.fromStartEnd(120, 150, false),
+        TimeRange.fromStartEnd(0, 60, false),
+        TimeRange.fromStartEnd(70, 90, false),
+        TimeRange.fromStartEnd(500, 530, false),
+        TimeRange.fromStartEnd(30, 120, false)));
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(0, 150, false),
+        TimeRange.fromStartEnd(500, 530, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
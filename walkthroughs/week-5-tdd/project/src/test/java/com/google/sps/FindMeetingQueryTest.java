@@ -19,14 +19,17 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.JUnit4;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 /** */
-@RunWith(JUnit4.class)
+@RunWith(Parameterized.class)
 public final class FindMeetingQueryTest {
   private static final Collection<Event> NO_EVENTS = Collections.emptySet();
   private static final Collection<String> NO_ATTENDEES = Collections.emptySet();
@@ -52,11 +55,24 @@ public final class FindMeetingQueryTest {
   private static final int DURATION_1_HOUR = 60;
   private static final int DURATION_2_HOUR = 120;
 
+  // Every engine must give the same answers, so run all tests against each of them.
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> engines() {
+    List<Object[]> engines = new ArrayList<>();
+    for (FindMeetingQuery.Engine engine : FindMeetingQuery.Engine.values()) {
+      engines.add(new Object[] {engine});
+    }
+    return engines;
+  }
+
+  @Parameter
+  public FindMeetingQuery.Engine engine;
+
   private FindMeetingQuery query;
 
   @Before
   public void setUp() {
-    query = new FindMeetingQuery();
+    query = new FindMeetingQuery(engine);
   }
 
   @Test
@@ -449,4 +465,55 @@ public final class FindMeetingQueryTest {
 
     Assert.assertEquals(expected, actual);
   }
+
+  @Test
+  public void limitReturnsFirstTimes() {
+    // Options : |--1--|A |--2--|B |--3--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.setLimit(2);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void iteratorMatchesQuery() {
+    Random random = new Random(17);
+    List<String> people = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      people.add("Person " + i);
+    }
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      events.add(new Event("Event " + i,
+          TimeRange.fromStartDuration(random.nextInt(1400), 1 + random.nextInt(40)),
+          Arrays.asList(people.get(random.nextInt(30)))));
+    }
+    VersionedEventStore.Snapshot snapshot = new VersionedEventStore(events).snapshot();
+
+    for (int i = 0; i < 50; i++) {
+      MeetingRequest request =
+          new MeetingRequest(people.subList(0, random.nextInt(4)), 1 + random.nextInt(60));
+      for (int j = random.nextInt(4); j > 0; j--) {
+        request.addOptionalAttendee(people.get(random.nextInt(30)));
+      }
+
+      List<TimeRange> actual = new ArrayList<>();
+      query.iterator(snapshot, request).forEachRemaining(actual::add);
+
+      Assert.assertEquals(query.query(snapshot, request), actual);
+    }
+  }
 }
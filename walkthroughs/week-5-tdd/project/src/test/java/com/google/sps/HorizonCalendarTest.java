@@ -0,0 +1,134 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonCalendarTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int DAY_0_0900AM = HorizonCalendar.getTimeInMinutes(0, 9, 0);
+  private static final int DAY_0_0500PM = HorizonCalendar.getTimeInMinutes(0, 17, 0);
+  private static final int DAY_1_0000AM = HorizonCalendar.getTimeInMinutes(1, 0, 0);
+  private static final int DAY_1_0900AM = HorizonCalendar.getTimeInMinutes(1, 9, 0);
+  private static final int DAY_1_0500PM = HorizonCalendar.getTimeInMinutes(1, 17, 0);
+  private static final int DAY_2_0900AM = HorizonCalendar.getTimeInMinutes(2, 9, 0);
+  private static final int DAY_3_0000AM = HorizonCalendar.getTimeInMinutes(3, 0, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void eventsAreSplitAtMidnight() {
+    HorizonCalendar calendar = new HorizonCalendar(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(DAY_0_0500PM, DAY_1_0900AM, false),
+            Arrays.asList(PERSON_A))));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(DAY_0_0500PM, DAY_1_0000AM, false)),
+        calendar.getBusyTimes(PERSON_A, 0));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(DAY_1_0000AM, DAY_1_0900AM, false)),
+        calendar.getBusyTimes(PERSON_A, 1));
+  }
+
+  @Test
+  public void meetingsCanBeLongerThanADay() {
+    // A is busy until 9 AM on day 0 and B from 9 AM to 5 PM on day 1. Both free ranges are at
+    // least a day long and cross midnight.
+    HorizonCalendar calendar = new HorizonCalendar(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(0, DAY_0_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(DAY_1_0900AM, DAY_1_0500PM, false),
+            Arrays.asList(PERSON_B))));
+    MeetingRequest request = new MeetingRequest(
+        Arrays.asList(PERSON_A, PERSON_B), HorizonCalendar.MINUTES_PER_DAY);
+
+    Collection<TimeRange> actual = query.queryHorizon(calendar, request, 3, 5);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(DAY_0_0900AM, DAY_1_0900AM, false),
+            TimeRange.fromStartEnd(DAY_1_0500PM, DAY_3_0000AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void searchStopsAtLimit() {
+    HorizonCalendar calendar = new HorizonCalendar(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(DAY_0_0900AM, DAY_0_0500PM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(DAY_1_0900AM, DAY_1_0500PM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(DAY_2_0900AM, DURATION_1_HOUR),
+            Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    Collection<TimeRange> actual = query.queryHorizon(calendar, request, 30, 2);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(0, DAY_0_0900AM, false),
+            TimeRange.fromStartEnd(DAY_0_0500PM, DAY_1_0900AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void longestHorizonEndsAtItsLastMinute() {
+    HorizonCalendar calendar = new HorizonCalendar(Arrays.asList());
+
+    Collection<TimeRange> actual = calendar.getAvailableTimes(
+        Arrays.asList(PERSON_A), DURATION_1_HOUR, HorizonCalendar.MAX_DAYS, 1);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(
+        0, HorizonCalendar.MAX_DAYS * HorizonCalendar.MINUTES_PER_DAY, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsHorizonOverMaxDays() {
+    new HorizonCalendar(Arrays.asList()).getAvailableTimes(
+        Arrays.asList(PERSON_A), DURATION_1_HOUR, Integer.MAX_VALUE, 1);
+  }
+
+  @Test(timeout = 1000)
+  public void longEventsAreClippedToLongestHorizon() {
+    // An event lasting thousands of years must not be split into a day each.
+    HorizonCalendar calendar = new HorizonCalendar(Arrays.asList(new Event("Forever",
+        TimeRange.fromStartDuration(DAY_1_0000AM, Integer.MAX_VALUE - DAY_1_0000AM),
+        Arrays.asList(PERSON_A))));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(
+        HorizonCalendar.getTimeInMinutes(2, 0, 0), DAY_3_0000AM, false)),
+        calendar.getBusyTimes(PERSON_A, 2));
+    Assert.assertEquals(Arrays.asList(), calendar.getBusyTimes(PERSON_A, HorizonCalendar.MAX_DAYS));
+    Collection<TimeRange> actual = calendar.getAvailableTimes(
+        Arrays.asList(PERSON_A), DURATION_1_HOUR, HorizonCalendar.MAX_DAYS, 10);
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, DAY_1_0000AM, false)), actual);
+  }
+}
@@ -0,0 +1,82 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IntervalListTest {
+  @Test
+  public void sortAndMergeMatchesMinuteBitmap() {
+    Random random = new Random(3);
+    IntervalList intervals = new IntervalList(1);
+    for (int round = 0; round < 50; round++) {
+      intervals.clear();
+      BitSet busyMinutes = new BitSet();
+      int count = random.nextInt(300);
+      for (int i = 0; i < count; i++) {
+        int start = random.nextInt(1400);
+        int end = start + 1 + random.nextInt(40);
+        intervals.add(start, end);
+        busyMinutes.set(start, end);
+      }
+
+      intervals.sortAndMerge();
+
+      assertSameIntervals(busyMinutes, intervals);
+    }
+  }
+
+  @Test
+  public void mergeFromOnlyAddsNewIntervals() {
+    Random random = new Random(5);
+    IntervalList intervals = new IntervalList();
+    BitSet busyMinutes = new BitSet();
+    for (int i = 0; i < 100; i++) {
+      int start = random.nextInt(1400);
+      intervals.add(start, start + 10);
+      busyMinutes.set(start, start + 10);
+    }
+    intervals.sortAndMerge();
+
+    int mergedCount = intervals.size();
+    for (int i = 0; i < 100; i++) {
+      int start = random.nextInt(1400);
+      intervals.add(start, start + 20);
+      busyMinutes.set(start, start + 20);
+    }
+    intervals.mergeFrom(mergedCount);
+
+    assertSameIntervals(busyMinutes, intervals);
+  }
+
+  /** Checks that the list holds exactly the runs of set bits, in order. */
+  private static void assertSameIntervals(BitSet busyMinutes, IntervalList intervals) {
+    int index = 0;
+    for (int start = busyMinutes.nextSetBit(0); start >= 0;
+        start = busyMinutes.nextSetBit(busyMinutes.nextClearBit(start))) {
+      Assert.assertEquals(start, intervals.start(index));
+      Assert.assertEquals(busyMinutes.nextClearBit(start), intervals.end(index));
+      index++;
+    }
+    Assert.assertEquals(index, intervals.size());
+  }
+}
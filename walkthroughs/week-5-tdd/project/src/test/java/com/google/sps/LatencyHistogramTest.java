@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class LatencyHistogramTest {
+  @Test
+  public void emptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getValueAtQuantile(0.99));
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int value = 1; value <= 10; value++) {
+      histogram.record(value);
+    }
+
+    Assert.assertEquals(10, histogram.getCount());
+    Assert.assertEquals(5, histogram.getValueAtQuantile(0.5));
+    Assert.assertEquals(10, histogram.getValueAtQuantile(1));
+    Assert.assertEquals(10, histogram.getMax());
+  }
+
+  @Test
+  public void quantilesWithinRelativeError() {
+    Random random = new Random(3);
+    LatencyHistogram histogram = new LatencyHistogram();
+    long[] values = new long[100000];
+    for (int i = 0; i < values.length; i++) {
+      // Spread the values over many powers of two.
+      values[i] = (long) Math.exp(random.nextDouble() * 30);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    for (double quantile : new double[] {0.5, 0.9, 0.99, 0.999}) {
+      long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+      long actual = histogram.getValueAtQuantile(quantile);
+      Assert.assertTrue(actual >= exact);
+      Assert.assertTrue(actual <= exact + exact / 16 + 1);
+    }
+    Assert.assertEquals(values[values.length - 1], histogram.getValueAtQuantile(1));
+  }
+
+  @Test
+  public void largestValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(Long.MAX_VALUE);
+    histogram.record(-5);
+
+    Assert.assertEquals(0, histogram.getValueAtQuantile(0.5));
+    Assert.assertEquals(Long.MAX_VALUE, histogram.getValueAtQuantile(1));
+  }
+}
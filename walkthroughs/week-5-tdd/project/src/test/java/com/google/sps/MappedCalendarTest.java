@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MappedCalendarTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void eventsRoundTripInStartOrder() throws IOException {
+    Event late = new Event(
+        "Caf\u00e9", TimeRange.fromStartDuration(600, 30), Arrays.asList(PERSON_A, PERSON_B));
+    Event early =
+        new Event("Standup", TimeRange.fromStartDuration(60, 15), Arrays.asList(PERSON_C));
+    Path file = folder.newFile().toPath();
+
+    MappedCalendar.write(Arrays.asList(late, early), file);
+    MappedCalendar calendar = MappedCalendar.open(file);
+
+    Assert.assertEquals(2, calendar.getEventCount());
+    Assert.assertEquals(3, calendar.getAttendeeCount());
+    Assert.assertEquals(early, calendar.getEvent(0));
+    Assert.assertEquals(late, calendar.getEvent(1));
+  }
+
+  @Test
+  public void busyTimesMatchSnapshot() throws IOException {
+    Random random = new Random(13);
+    List<String> people = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      people.add("Person " + i);
+    }
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      events.add(new Event("Event " + i,
+          TimeRange.fromStartDuration(random.nextInt(1400), 1 + random.nextInt(60)),
+          Arrays.asList(people.get(random.nextInt(100)), people.get(random.nextInt(100)))));
+    }
+    Path file = folder.newFile().toPath();
+    MappedCalendar.write(events, file);
+    MappedCalendar calendar = MappedCalendar.open(file);
+    VersionedEventStore.Snapshot snapshot = new VersionedEventStore(events).snapshot();
+
+    for (int i = 0; i < 20; i++) {
+      List<String> attendees =
+          new ArrayList<>(people.subList(i * 5, i * 5 + 1 + random.nextInt(5)));
+      attendees.add("Nobody");
+      TimeRange window = TimeRange.fromStartDuration(random.nextInt(1000), random.nextInt(400));
+
+      // A snapshot returns whole runs of back-to-back events, which may reach past the window.
+      Assert.assertEquals(clip(snapshot.getBusyTimes(attendees, window), window),
+          clip(calendar.getBusyTimes(attendees, window), window));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsOtherFiles() throws IOException {
+    Path file = folder.newFile().toPath();
+    Files.write(file, "not a calendar".getBytes("UTF-8"));
+
+    MappedCalendar.open(file);
+  }
+
+  /** Returns the merged busy times, cut down to the part of each time within {@code window}. */
+  private static List<TimeRange> clip(List<TimeRange> busyTimes, TimeRange window) {
+    List<TimeRange> clipped = new ArrayList<>();
+    for (TimeRange time : BusyIntervalMerger.merge(busyTimes)) {
+      int start = Math.max(time.start(), window.start());
+      int end = Math.min(time.end(), window.end());
+      if (start < end) {
+        clipped.add(TimeRange.fromStartEnd(start, end, false));
+      }
+    }
+    return clipped;
+  }
+}
@@ -0,0 +1,71 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryMetricsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  @Test
+  public void queryRecordsEachPhaseOnce() {
+    QueryMetrics metrics = new QueryMetrics();
+    BusyCalendar calendar = new VersionedEventStore(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(600, 60), Arrays.asList(PERSON_B))))
+        .snapshot();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+
+    try (QueryMetrics.Sample sample = metrics.start()) {
+      new FindMeetingQuery().query(calendar, request);
+    }
+
+    // The busy times of the mandatory and the optional attendees count as one query.
+    Assert.assertEquals(1, metrics.getPhaseNanos(QueryMetrics.Phase.BUSY_TIMES).getCount());
+    Assert.assertEquals(1, metrics.getPhaseNanos(QueryMetrics.Phase.MERGE).getCount());
+    Assert.assertEquals(1, metrics.getPhaseNanos(QueryMetrics.Phase.FIND_GAPS).getCount());
+    Assert.assertEquals(0, metrics.getPhaseNanos(QueryMetrics.Phase.PARSE).getCount());
+    Assert.assertEquals(1, metrics.getTotalNanos().getCount());
+  }
+
+  @Test
+  public void unmeasuredQueriesRecordNothing() {
+    QueryMetrics metrics = new QueryMetrics();
+    BusyCalendar calendar = new VersionedEventStore(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A))))
+        .snapshot();
+
+    new FindMeetingQuery().query(calendar, new MeetingRequest(Arrays.asList(PERSON_A), 30));
+
+    Assert.assertEquals(0, metrics.getTotalNanos().getCount());
+    Assert.assertEquals(0, metrics.getPhaseNanos(QueryMetrics.Phase.BUSY_TIMES).getCount());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void samplesCannotBeNested() {
+    QueryMetrics metrics = new QueryMetrics();
+    try (QueryMetrics.Sample sample = metrics.start()) {
+      metrics.start();
+    }
+  }
+}
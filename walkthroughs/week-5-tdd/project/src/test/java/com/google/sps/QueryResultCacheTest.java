@@ -0,0 +1,113 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryResultCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final Collection<TimeRange> RESULT = Arrays.asList(TimeRange.WHOLE_DAY);
+
+  private final AtomicInteger queryCount = new AtomicInteger();
+  private final Function<MeetingRequest, Collection<TimeRange>> query = request -> {
+    queryCount.incrementAndGet();
+    return RESULT;
+  };
+
+  @Test
+  public void attendeeOrderDoesNotMatter() {
+    QueryResultCache cache = new QueryResultCache(10);
+
+    cache.get(new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30), 0, query);
+    Collection<TimeRange> actual =
+        cache.get(new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), 30), 0, query);
+
+    Assert.assertEquals(RESULT, actual);
+    Assert.assertEquals(1, queryCount.get());
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void optionalAttendeesAndDurationArePartOfTheKey() {
+    QueryResultCache cache = new QueryResultCache(10);
+    MeetingRequest withOptional = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    withOptional.addOptionalAttendee(PERSON_B);
+
+    cache.get(new MeetingRequest(Arrays.asList(PERSON_A), 30), 0, query);
+    cache.get(new MeetingRequest(Arrays.asList(PERSON_A), 60), 0, query);
+    cache.get(withOptional, 0, query);
+
+    Assert.assertEquals(3, queryCount.get());
+    Assert.assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void engineIsPartOfTheKey() {
+    QueryResultCache cache = new QueryResultCache(10);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+
+    cache.get(request, FindMeetingQuery.Engine.INTERVAL_MERGE, 0, query);
+    cache.get(request, FindMeetingQuery.Engine.MINUTE_BITMAP, 0, query);
+    cache.get(request, 0, query);
+
+    Assert.assertEquals(2, queryCount.get());
+    Assert.assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedResultIsEvicted() {
+    QueryResultCache cache = new QueryResultCache(2);
+    MeetingRequest first = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    MeetingRequest second = new MeetingRequest(Arrays.asList(PERSON_B), 30);
+    MeetingRequest third = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    cache.get(first, 0, query);
+    cache.get(second, 0, query);
+    cache.get(first, 0, query);
+    cache.get(third, 0, query);
+    cache.get(first, 0, query);
+    cache.get(second, 0, query);
+
+    // Only the second request had to be computed again.
+    Assert.assertEquals(4, queryCount.get());
+    Assert.assertEquals(2, cache.getEvictionCount());
+  }
+
+  @Test
+  public void newVersionDropsResults() {
+    QueryResultCache cache = new QueryResultCache(10);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+
+    cache.get(request, 1, query);
+    cache.get(request, 2, query);
+    cache.get(request, 1, query);
+    cache.get(request, 2, query);
+
+    Assert.assertEquals(3, queryCount.get());
+    Assert.assertEquals(1, cache.getHitCount());
+  }
+}
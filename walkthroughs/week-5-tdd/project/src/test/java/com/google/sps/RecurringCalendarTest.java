@@ -0,0 +1,162 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringCalendarTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int DAY = HorizonCalendar.MINUTES_PER_DAY;
+
+  @Test
+  public void occurrencesSkipExceptionsAndStopAfterCount() {
+    // Every other day at 9:00 for 30 minutes, five times, except on day 4.
+    RecurringEvent recurringEvent = new RecurringEvent("Sync",
+        TimeRange.fromStartDuration(540, 30), Arrays.asList(PERSON_A), 2, 5, Arrays.asList(4));
+
+    IntervalList occurrences = new IntervalList();
+    recurringEvent.addOccurrences(TimeRange.fromStartEnd(0, 20 * DAY, false), 0, occurrences);
+
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartDuration(540, 30),
+        TimeRange.fromStartDuration(2 * DAY + 540, 30),
+        TimeRange.fromStartDuration(6 * DAY + 540, 30),
+        TimeRange.fromStartDuration(8 * DAY + 540, 30));
+    Assert.assertEquals(expected, occurrences.toTimeRanges());
+  }
+
+  @Test
+  public void onlyOccurrencesInWindowAreExpanded() {
+    RecurringEvent recurringEvent = new RecurringEvent("Stand-up",
+        TimeRange.fromStartDuration(540, 15), Arrays.asList(PERSON_A), RecurringEvent.DAILY,
+        RecurringEvent.FOREVER, Collections.emptyList());
+
+    IntervalList occurrences = new IntervalList();
+    // A window a million days in, covering a single occurrence.
+    int windowStart = 1000000 * DAY;
+    recurringEvent.addOccurrences(
+        TimeRange.fromStartDuration(windowStart, DAY), -windowStart, occurrences);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(540, 15)), occurrences.toTimeRanges());
+  }
+
+  @Test
+  public void dayViewMatchesExpandedEvents() {
+    Random random = new Random(13);
+    List<RecurringEvent> recurringEvents = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      recurringEvents.add(new RecurringEvent("Event " + i,
+          TimeRange.fromStartDuration(random.nextInt(5 * DAY), 15 + random.nextInt(180)),
+          Arrays.asList(random.nextBoolean() ? PERSON_A : PERSON_B),
+          1 + random.nextInt(14), 1 + random.nextInt(20),
+          Arrays.asList(random.nextInt(30), random.nextInt(30))));
+    }
+    RecurringCalendar calendar =
+        new RecurringCalendar(new VersionedEventStore().snapshot(), recurringEvents);
+    Collection<String> attendees = Arrays.asList(PERSON_A, PERSON_B);
+
+    for (int day = 0; day < 30; day++) {
+      BusyCalendar dayCalendar = calendar.onDay(new VersionedEventStore().snapshot(), day);
+      BusyCalendar expected = new VersionedEventStore(expand(recurringEvents, day)).snapshot();
+
+      Assert.assertEquals(
+          BusyIntervalMerger.merge(expected.getBusyTimes(attendees, TimeRange.WHOLE_DAY)),
+          BusyIntervalMerger.merge(dayCalendar.getBusyTimes(attendees, TimeRange.WHOLE_DAY)));
+      Assert.assertEquals(
+          expected.getBusyMinutes(attendees), dayCalendar.getBusyMinutes(attendees));
+    }
+  }
+
+  @Test
+  public void lastDayShowsOccurrences() {
+    // Every day from 23:30 to midnight, forever.
+    RecurringEvent lateCall = new RecurringEvent("Late call",
+        TimeRange.fromStartDuration(DAY - 30, 30), Arrays.asList(PERSON_A), RecurringEvent.DAILY,
+        RecurringEvent.FOREVER, Collections.emptyList());
+    RecurringCalendar calendar = new RecurringCalendar(
+        new VersionedEventStore().snapshot(), Arrays.asList(lateCall));
+
+    BusyCalendar lastDay =
+        calendar.onDay(new VersionedEventStore().snapshot(), RecurringEvent.LAST_DAY);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(DAY - 30, 30)),
+        lastDay.getBusyTimes(Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsDayPastLastDay() {
+    RecurringCalendar calendar = new RecurringCalendar(
+        new VersionedEventStore().snapshot(), Collections.emptyList());
+
+    calendar.onDay(new VersionedEventStore().snapshot(), RecurringEvent.LAST_DAY + 1);
+  }
+
+  @Test
+  public void horizonIncludesRecurringEvents() {
+    // A stand-up every weekday of two weeks, and a long meeting on the first day.
+    RecurringEvent standUp = new RecurringEvent("Stand-up",
+        TimeRange.fromStartDuration(540, 15), Arrays.asList(PERSON_A), RecurringEvent.DAILY,
+        14, Arrays.asList(5, 6, 12, 13));
+    Event offsite = new Event("Offsite", TimeRange.fromStartDuration(480, 600),
+        Arrays.asList(PERSON_A));
+    HorizonCalendar calendar =
+        new HorizonCalendar(Arrays.asList(offsite), Arrays.asList(standUp));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(480, 600)),
+        calendar.getBusyTimes(PERSON_A, 0));
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(DAY + 540, 15)),
+        calendar.getBusyTimes(PERSON_A, 1));
+    Assert.assertEquals(Collections.emptyList(), calendar.getBusyTimes(PERSON_A, 5));
+    Assert.assertEquals(Collections.emptyList(), calendar.getBusyTimes(PERSON_A, 14));
+
+    // The first time of 10 hours is after the stand-up of the second day.
+    List<TimeRange> actual = calendar.getAvailableTimes(Arrays.asList(PERSON_A), 600, 7, 2);
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(1080, DAY + 540, false),
+        TimeRange.fromStartEnd(DAY + 555, 2 * DAY + 540, false));
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Returns every occurrence that overlaps {@code day} as a single event, shifted into the day. */
+  private static List<Event> expand(List<RecurringEvent> recurringEvents, int day) {
+    List<Event> events = new ArrayList<>();
+    for (RecurringEvent recurringEvent : recurringEvents) {
+      TimeRange first = recurringEvent.getFirst();
+      int period = recurringEvent.getIntervalDays() * DAY;
+      for (int start = first.start(); start < (day + 1) * DAY; start += period) {
+        int index = (start - first.start()) / period;
+        if (start + first.duration() > day * DAY && index < recurringEvent.getOccurrenceCount()
+            && !recurringEvent.isException(start / DAY)) {
+          events.add(new Event(recurringEvent.getTitle(),
+              TimeRange.fromStartDuration(start - day * DAY, first.duration()),
+              recurringEvent.getAttendees()));
+        }
+      }
+    }
+    return events;
+  }
+}
@@ -0,0 +1,106 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RoomSearchTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final Room SMALL_ROOM = new Room("Small", 1);
+  private static final Room BIG_ROOM = new Room("Big", 10);
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  @Test
+  public void roomBookingsSplitFreeTimes() {
+    // Events  :       |--A--|
+    // Room    :             |--Big--|
+    // Options : |--1--|             |--2--|
+
+    VersionedEventStore.Snapshot calendar = new VersionedEventStore(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Booking", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            Arrays.asList(BIG_ROOM.getName())))).snapshot();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    List<RoomSlot> actual = new FindMeetingQuery().queryRooms(
+        calendar, request, calendar, Arrays.asList(SMALL_ROOM, BIG_ROOM));
+    List<RoomSlot> expected = Arrays.asList(
+        new RoomSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false), BIG_ROOM),
+        new RoomSlot(TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true), BIG_ROOM));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void slotsMatchMinuteBitmaps() {
+    Random random = new Random(19);
+    List<Room> rooms = new ArrayList<>();
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      rooms.add(new Room("Room " + i, 1 + random.nextInt(10)));
+    }
+    for (int i = 0; i < 500; i++) {
+      String attendee = random.nextInt(5) == 0
+          ? "Person " + random.nextInt(5) : rooms.get(random.nextInt(50)).getName();
+      events.add(new Event("Event " + i,
+          TimeRange.fromStartDuration(random.nextInt(1400), 1 + random.nextInt(60)),
+          Arrays.asList(attendee)));
+    }
+    VersionedEventStore.Snapshot calendar = new VersionedEventStore(events).snapshot();
+    List<String> attendees = Arrays.asList("Person 0", "Person 1", "Person 2");
+    MeetingRequest request = new MeetingRequest(attendees, 20);
+
+    List<RoomSlot> actual = new FindMeetingQuery().queryRooms(calendar, request, calendar, rooms);
+
+    List<RoomSlot> expected = new ArrayList<>();
+    BitSet peopleBusy = calendar.getBusyMinutes(attendees);
+    for (Room room : rooms) {
+      if (room.getCapacity() < attendees.size()) {
+        continue;
+      }
+      BitSet busy = calendar.getBusyMinutes(Collections.singletonList(room.getName()));
+      busy.or(peopleBusy);
+      int start = busy.nextClearBit(0);
+      while (start < 1440) {
+        int end = busy.nextSetBit(start);
+        end = end < 0 || end > 1440 ? 1440 : end;
+        if (end - start >= 20) {
+          expected.add(new RoomSlot(TimeRange.fromStartEnd(start, end, false), room));
+        }
+        start = busy.nextClearBit(end);
+      }
+    }
+    expected.sort(RoomSlot.ORDER_BY_START);
+
+    Assert.assertEquals(expected, actual);
+  }
+}
@@ -0,0 +1,71 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ShardedBusyUnionTest {
+  private final Random random = new Random(29);
+  private final List<String> people = new ArrayList<>();
+  private final List<Event> events = new ArrayList<>();
+
+  private VersionedEventStore.Snapshot createCalendar(int peopleCount, int eventCount) {
+    for (int i = 0; i < peopleCount; i++) {
+      people.add("Person " + i);
+    }
+    for (int i = 0; i < eventCount; i++) {
+      events.add(new Event("Event " + i,
+          TimeRange.fromStartDuration(random.nextInt(1400), 1 + random.nextInt(20)),
+          Arrays.asList(people.get(random.nextInt(peopleCount)))));
+    }
+    return new VersionedEventStore(events).snapshot();
+  }
+
+  @Test
+  public void shardsMatchSequentialMerge() {
+    VersionedEventStore.Snapshot calendar = createCalendar(300, 2000);
+    IntervalList expected = new IntervalList();
+    calendar.addBusyTimes(people, TimeRange.WHOLE_DAY, expected);
+    expected.sortAndMerge();
+
+    for (int shardCount = 1; shardCount <= 7; shardCount++) {
+      IntervalList actual = new IntervalList();
+      ShardedBusyUnion.addBusyTimes(calendar, people, actual, shardCount);
+
+      Assert.assertEquals(expected.toTimeRanges(), actual.toTimeRanges());
+    }
+  }
+
+  @Test
+  public void largeMeetingsMatchAcrossEngines() {
+    // Enough attendees to take the parallel path, with events sparse enough to leave gaps.
+    VersionedEventStore.Snapshot calendar =
+        createCalendar(ShardedBusyUnion.PARALLEL_THRESHOLD * 2, 300);
+    MeetingRequest request = new MeetingRequest(people, 15);
+
+    Assert.assertEquals(
+        new FindMeetingQuery(FindMeetingQuery.Engine.MINUTE_BITMAP).query(calendar, request),
+        new FindMeetingQuery(FindMeetingQuery.Engine.INTERVAL_MERGE).query(calendar, request));
+  }
+}
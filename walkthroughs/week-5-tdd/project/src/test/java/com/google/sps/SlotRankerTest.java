@@ -0,0 +1,146 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SlotRankerTest {
+  private static final String PERSON_A = "Person A";
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void leastFragmentationPrefersEdgesOfFreeTime() {
+    // Free from 9:00 to 10:00 only.
+    List<TimeRange> freeTimes = Arrays.asList(TimeRange.fromStartEnd(540, 600, false));
+
+    List<TimeRange> actual = SlotRanker.topK(freeTimes.iterator(), DURATION_30_MINUTES, 15, 2,
+        SlotScorer.leastFragmentation(DURATION_30_MINUTES));
+
+    // Both meetings that fill the hour exactly leave nothing wasted, and the earlier one wins.
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(540, 30), TimeRange.fromStartDuration(570, 30));
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void closestToPrefersPreferredStart() {
+    List<TimeRange> freeTimes = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    List<TimeRange> actual = SlotRanker.topK(
+        freeTimes.iterator(), DURATION_30_MINUTES, 15, 3, SlotScorer.closestTo(610));
+
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartDuration(615, 30),
+        TimeRange.fromStartDuration(600, 30), TimeRange.fromStartDuration(630, 30));
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void topKMatchesFullSort() {
+    Random random = new Random(5);
+    for (int trial = 0; trial < 50; trial++) {
+      List<TimeRange> freeTimes = new ArrayList<>();
+      int start = 0;
+      while (true) {
+        start += random.nextInt(120);
+        int end = start + random.nextInt(240);
+        if (end > TimeRange.END_OF_DAY + 1) {
+          break;
+        }
+        freeTimes.add(TimeRange.fromStartEnd(start, end, false));
+        start = end + 1;
+      }
+      int duration = 1 + random.nextInt(90);
+      int step = 1 + random.nextInt(20);
+      int k = 1 + random.nextInt(10);
+      SlotScorer scorer = random.nextBoolean()
+          ? SlotScorer.leastFragmentation(random.nextInt(60))
+          : SlotScorer.closestTo(random.nextInt(TimeRange.END_OF_DAY));
+
+      Assert.assertEquals(sortAll(freeTimes, duration, step, k, scorer),
+          SlotRanker.topK(freeTimes.iterator(), duration, step, k, scorer));
+      Assert.assertEquals(sortAll(freeTimes, duration, step, Integer.MAX_VALUE, scorer),
+          SlotRanker.rankAll(freeTimes.iterator(), duration, step, scorer));
+    }
+  }
+
+  @Test
+  public void queryRankedUsesLimitAndFreeTimes() {
+    // Person A is busy from 9:00 to 17:00, so the best times closest to 9:00 are around it.
+    BusyCalendar calendar = new VersionedEventStore(Arrays.asList(new Event("Work",
+        TimeRange.fromStartEnd(540, 1020, false), Arrays.asList(PERSON_A)))).snapshot();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.setLimit(2);
+
+    List<TimeRange> actual = new FindMeetingQuery().queryRanked(
+        calendar, request, SlotScorer.closestTo(540), 30);
+
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(510, 30), TimeRange.fromStartDuration(480, 30));
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void closestToRejectsPreferredStartOutsideDay() {
+    SlotScorer.closestTo(-1);
+  }
+
+  @Test
+  public void hugeStepOnlyTriesFirstStart() {
+    // A step that would wrap the start around to a negative time ends the free time instead.
+    List<TimeRange> freeTimes = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    List<TimeRange> actual = SlotRanker.topK(freeTimes.iterator(), DURATION_30_MINUTES,
+        Integer.MAX_VALUE, 10, SlotScorer.closestTo(0));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(0, 30)), actual);
+  }
+
+  /** Scores every candidate and sorts them all, the way topK avoids, and keeps the first k. */
+  private static List<TimeRange> sortAll(
+      List<TimeRange> freeTimes, int duration, int step, int k, SlotScorer scorer) {
+    List<TimeRange> slots = new ArrayList<>();
+    List<Double> scores = new ArrayList<>();
+    for (TimeRange freeTime : freeTimes) {
+      for (int start = freeTime.start(); start + duration <= freeTime.end(); start += step) {
+        TimeRange slot = TimeRange.fromStartDuration(start, duration);
+        slots.add(slot);
+        scores.add(scorer.score(slot, freeTime));
+      }
+    }
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < slots.size(); i++) {
+      order.add(i);
+    }
+    Collections.sort(order, Comparator.<Integer>comparingDouble(i -> -scores.get(i))
+        .thenComparingInt(i -> slots.get(i).start()));
+    List<TimeRange> ranked = new ArrayList<>();
+    for (int i = 0; i < Math.min(k, order.size()); i++) {
+      ranked.add(slots.get(order.get(i)));
+    }
+    return ranked;
+  }
+}
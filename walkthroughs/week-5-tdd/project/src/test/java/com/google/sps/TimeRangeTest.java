@@ -184,4 +184,20 @@ public final class TimeRangeTest {
     Assert.assertTrue(emptyMiddle.overlaps(range));
     Assert.assertTrue(emptyEnd.overlaps(range));
   }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNegativeDuration() {
+    TimeRange.fromStartDuration(100, -1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsEndBeforeStart() {
+    TimeRange.fromStartEnd(100, 99, false);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsEndPastLargestInt() {
+    // The end would wrap around to a negative time.
+    TimeRange.fromStartDuration(2000000000, 500000000);
+  }
 }
@@ -0,0 +1,201 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class VersionedEventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final Event EVENT_1 =
+      new Event("Event 1", TimeRange.fromStartDuration(600, 30), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event(
+      "Event 2", TimeRange.fromStartDuration(60, 30), Arrays.asList(PERSON_A, PERSON_B));
+
+  @Test
+  public void snapshotsDoNotChange() {
+    VersionedEventStore store = new VersionedEventStore(Arrays.asList(EVENT_1));
+    VersionedEventStore.Snapshot before = store.snapshot();
+
+    store.addEvent(EVENT_2);
+    VersionedEventStore.Snapshot after = store.snapshot();
+
+    Assert.assertEquals(Arrays.asList(EVENT_1), before.getEvents(PERSON_A));
+    Assert.assertEquals(Collections.emptyList(), before.getEvents(PERSON_B));
+    Assert.assertEquals(Arrays.asList(EVENT_2, EVENT_1), after.getEvents(PERSON_A));
+    Assert.assertEquals(before.getVersion() + 1, after.getVersion());
+  }
+
+  @Test
+  public void removingCountsCopies() {
+    VersionedEventStore store = new VersionedEventStore(Arrays.asList(EVENT_2, EVENT_2));
+
+    Assert.assertTrue(store.removeEvent(EVENT_2));
+    Assert.assertEquals(Arrays.asList(EVENT_2), store.snapshot().getEvents(PERSON_B));
+    Assert.assertTrue(store.removeEvent(EVENT_2));
+    Assert.assertFalse(store.removeEvent(EVENT_2));
+    Assert.assertEquals(Collections.emptyList(), store.snapshot().getEvents());
+    Assert.assertEquals(2, store.snapshot().getVersion());
+  }
+
+  @Test
+  public void replaceAllPublishesOnlyNewEvents() {
+    VersionedEventStore store = new VersionedEventStore(Arrays.asList(EVENT_1, EVENT_2));
+
+    VersionedEventStore.Snapshot snapshot = store.replaceAll(Arrays.asList(EVENT_2));
+
+    Assert.assertSame(snapshot, store.snapshot());
+    Assert.assertEquals(Arrays.asList(EVENT_2), snapshot.getEvents());
+    Assert.assertEquals(Arrays.asList(EVENT_2), snapshot.getEvents(PERSON_A));
+    Assert.assertEquals(1, snapshot.getVersion());
+    Assert.assertEquals(2, store.replaceAll(Collections.emptyList()).getVersion());
+    Assert.assertEquals(Collections.emptyList(), store.snapshot().getEvents(PERSON_B));
+  }
+
+  @Test
+  public void builderAddsToLatestSnapshot() {
+    VersionedEventStore store = new VersionedEventStore(Arrays.asList(EVENT_1));
+    VersionedEventStore.Builder builder = store.newBuilder();
+    builder.add(EVENT_2);
+    // Changes made while the builder fills up are kept.
+    store.addEvent(EVENT_1);
+
+    Assert.assertEquals(1, builder.size());
+    Assert.assertEquals(1, store.snapshot().getVersion());
+    VersionedEventStore.Snapshot snapshot = builder.publish();
+
+    Assert.assertSame(snapshot, store.snapshot());
+    Assert.assertEquals(2, snapshot.getVersion());
+    Assert.assertEquals(Arrays.asList(EVENT_2, EVENT_1, EVENT_1), snapshot.getEvents(PERSON_A));
+    Assert.assertEquals(
+        BusyIntervalMerger.merge(Arrays.asList(EVENT_1.getWhen(), EVENT_2.getWhen())),
+        BusyIntervalMerger.merge(
+            snapshot.getBusyTimes(Arrays.asList(PERSON_A, PERSON_B), TimeRange.WHOLE_DAY)));
+  }
+
+  @Test
+  public void builderReplacesEverything() {
+    VersionedEventStore store = new VersionedEventStore(Arrays.asList(EVENT_1));
+    VersionedEventStore.Builder builder = store.newBuilder();
+    builder.add(EVENT_2);
+
+    VersionedEventStore.Snapshot snapshot = builder.publishReplacingAll();
+
+    Assert.assertEquals(Arrays.asList(EVENT_2), snapshot.getEvents());
+    Assert.assertEquals(1, snapshot.getVersion());
+  }
+
+  @Test
+  public void emptyBuilderPublishesNothing() {
+    VersionedEventStore store = new VersionedEventStore(Arrays.asList(EVENT_1));
+    VersionedEventStore.Snapshot previous = store.snapshot();
+
+    Assert.assertSame(previous, store.newBuilder().publish());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void builderPublishesOnce() {
+    VersionedEventStore.Builder builder = new VersionedEventStore().newBuilder();
+    builder.add(EVENT_1);
+    builder.publish();
+
+    builder.add(EVENT_2);
+  }
+
+  @Test
+  public void busyTimesMatchRemainingEvents() {
+    Random random = new Random(23);
+    List<String> people = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      people.add("Person " + i);
+    }
+    VersionedEventStore store = new VersionedEventStore();
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      if (!events.isEmpty() && random.nextInt(3) == 0) {
+        Event event = events.remove(random.nextInt(events.size()));
+        store.removeEvent(event);
+      } else {
+        Event event = new Event("Event " + i,
+            TimeRange.fromStartDuration(random.nextInt(1400), 1 + random.nextInt(60)),
+            Arrays.asList(people.get(random.nextInt(20)), people.get(random.nextInt(20))));
+        events.add(event);
+        store.addEvent(event);
+      }
+    }
+
+    for (String person : people) {
+      List<TimeRange> expected = new ArrayList<>();
+      for (Event event : events) {
+        if (event.getAttendees().contains(person)) {
+          expected.add(event.getWhen());
+        }
+      }
+      Assert.assertEquals(BusyIntervalMerger.merge(expected), BusyIntervalMerger.merge(
+          store.snapshot().getBusyTimes(Arrays.asList(person), TimeRange.WHOLE_DAY)));
+    }
+  }
+
+  @Test
+  public void readersNeverSeeHalfAnUpdate() throws InterruptedException {
+    // Every update moves an event shared by both people, so every snapshot must show them busy at
+    // the same times.
+    Event first = new Event(
+        "Shared", TimeRange.fromStartDuration(0, 30), Arrays.asList(PERSON_A, PERSON_B));
+    VersionedEventStore store = new VersionedEventStore(Arrays.asList(first));
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicReference<AssertionError> failure = new AtomicReference<>();
+    Thread reader = new Thread(() -> {
+      while (!done.get()) {
+        VersionedEventStore.Snapshot snapshot = store.snapshot();
+        List<TimeRange> busyA =
+            snapshot.getBusyTimes(Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY);
+        List<TimeRange> busyB =
+            snapshot.getBusyTimes(Arrays.asList(PERSON_B), TimeRange.WHOLE_DAY);
+        if (!busyA.equals(busyB) || busyA.size() != 1) {
+          failure.set(new AssertionError(busyA + " != " + busyB));
+        }
+      }
+    });
+    reader.start();
+
+    Event previous = first;
+    for (int i = 1; i < 2000; i++) {
+      Event next = new Event(
+          "Shared", TimeRange.fromStartDuration(i % 1400, 30), Arrays.asList(PERSON_A, PERSON_B));
+      store.update(Arrays.asList(next), Arrays.asList(previous));
+      previous = next;
+    }
+    done.set(true);
+    reader.join();
+
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+  }
+}
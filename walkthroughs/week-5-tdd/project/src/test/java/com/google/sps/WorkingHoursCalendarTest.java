@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WorkingHoursCalendarTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+  private static final int TIME_1300PM = TimeRange.getTimeInMinutes(13, 0);
+  private static final int TIME_1700PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final Map<String, Collection<TimeRange>> WORKING_HOURS = new HashMap<>();
+
+  static {
+    WORKING_HOURS.put(PERSON_A, Arrays.asList(
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1200PM, false),
+        TimeRange.fromStartEnd(TIME_1300PM, TIME_1700PM, false)));
+  }
+
+  @Test
+  public void meetingsOnlyFallInWorkingHours() {
+    // Hours   :    |-------A-------|   |-------A-------|
+    // Events  :         |--A--|
+    // Options :    |-1-|       |-2-|   |-------3-------|
+
+    VersionedEventStore.Snapshot events = new VersionedEventStore(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.getTimeInMinutes(11, 0), false),
+        Arrays.asList(PERSON_A)))).snapshot();
+    WorkingHoursCalendar calendar = new WorkingHoursCalendar(events, WORKING_HOURS);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        TimeRange.fromStartEnd(TimeRange.getTimeInMinutes(11, 0), TIME_1200PM, false),
+        TimeRange.fromStartEnd(TIME_1300PM, TIME_1700PM, false));
+
+    for (FindMeetingQuery.Engine engine : FindMeetingQuery.Engine.values()) {
+      Assert.assertEquals(expected, new FindMeetingQuery(engine).query(calendar, request));
+    }
+  }
+
+  @Test
+  public void attendeesWithoutHoursAreAlwaysAvailable() {
+    WorkingHoursCalendar calendar =
+        new WorkingHoursCalendar(new VersionedEventStore().snapshot(), WORKING_HOURS);
+
+    Assert.assertEquals(Collections.emptyList(),
+        calendar.getBusyTimes(Arrays.asList(PERSON_B), TimeRange.WHOLE_DAY));
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_1200PM, TIME_1300PM, false)),
+        calendar.getBusyTimes(Arrays.asList(PERSON_A, PERSON_B),
+            TimeRange.fromStartEnd(TIME_1000AM, TIME_1300PM, false)));
+  }
+
+  @Test
+  public void timeOffRepeatsOnEveryDayOfTheHorizon() {
+    // Day 0 and day 1, same hours:
+    // Hours   :    |---A---|   |---A---|
+    // Options :    |---1---|   |---2---|   ...
+
+    WorkingHoursCalendar calendar =
+        new WorkingHoursCalendar(new VersionedEventStore().snapshot(), WORKING_HOURS);
+    HorizonCalendar horizon =
+        new HorizonCalendar(Collections.emptyList(), calendar.getTimeOffEvents());
+
+    int nextDay = HorizonCalendar.MINUTES_PER_DAY;
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1200PM, false),
+        TimeRange.fromStartEnd(TIME_1300PM, TIME_1700PM, false),
+        TimeRange.fromStartEnd(nextDay + TIME_0900AM, nextDay + TIME_1200PM, false),
+        TimeRange.fromStartEnd(nextDay + TIME_1300PM, nextDay + TIME_1700PM, false));
+
+    Assert.assertEquals(expected, horizon.getAvailableTimes(Arrays.asList(PERSON_A), 60, 2, 10));
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BatchQueryServletTest {
+  // Nobody has events or working hours under this name, so the whole day is free.
+  private static final String NOBODY = "Nobody";
+  private static final String WHOLE_DAY = "[{\"start\":0,\"duration\":1440}]";
+
+  private BatchQueryServlet servlet;
+
+  @Before
+  public void setUp() throws ServletException {
+    servlet = new BatchQueryServlet();
+    servlet.init(FakeHttp.newConfig());
+  }
+
+  @Test
+  public void answersInRequestOrder() throws IOException {
+    // Only the requests short enough to fit in a day have an answer.
+    FakeHttp.Response response = post("["
+        + request(2000) + "," + request(30) + "," + request(2000) + "," + request(60) + "]");
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals("[[]," + WHOLE_DAY + ",[]," + WHOLE_DAY + "]", response.getBody());
+  }
+
+  @Test
+  public void answersEmptyBatch() throws IOException {
+    FakeHttp.Response response = post("[]");
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals("[]", response.getBody());
+  }
+
+  @Test
+  public void rejectsWholeBatchWhenOneRequestIsInvalid() throws IOException {
+    FakeHttp.Response response = post("[" + request(30) + "," + request(-30) + "]");
+
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+    Assert.assertEquals("", response.getBody());
+  }
+
+  @Test
+  public void rejectsMalformedBatch() throws IOException {
+    FakeHttp.Response response = post("[" + request(30) + ",");
+
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+    Assert.assertFalse(response.isCommittedBeforeError());
+    Assert.assertEquals("", response.getBody());
+  }
+
+  private FakeHttp.Response post(String body) throws IOException {
+    FakeHttp.Response response = new FakeHttp.Response();
+    servlet.doPost(
+        new FakeHttp.Request().withBody(body).toServletRequest(), response.toServletResponse());
+    return response;
+  }
+
+  private static String request(long duration) {
+    return "{\"attendees\":[\"" + NOBODY + "\"],\"duration\":" + duration + "}";
+  }
+}
@@ -0,0 +1,84 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CachedJsonResponseTest {
+  private static final CachedJsonResponse RESPONSE =
+      CachedJsonResponse.of(1, new Gson(), Arrays.asList("a", "b"));
+
+  @Test
+  public void etagIsStrongAndDependsOnBody() {
+    String etag = RESPONSE.getEtag();
+
+    Assert.assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+    Assert.assertEquals(
+        etag, CachedJsonResponse.of(2, new Gson(), Arrays.asList("a", "b")).getEtag());
+    Assert.assertNotEquals(
+        etag, CachedJsonResponse.of(1, new Gson(), Arrays.asList("a")).getEtag());
+  }
+
+  @Test
+  public void matchesExactWeakStarAndLists() {
+    String etag = RESPONSE.getEtag();
+
+    Assert.assertTrue(RESPONSE.matches(etag));
+    Assert.assertTrue(RESPONSE.matches("W/" + etag));
+    Assert.assertTrue(RESPONSE.matches("*"));
+    Assert.assertTrue(RESPONSE.matches("\"other\", " + etag));
+    Assert.assertTrue(RESPONSE.matches("\"other\",W/" + etag + " , \"more\""));
+    Assert.assertFalse(RESPONSE.matches(null));
+    Assert.assertFalse(RESPONSE.matches(""));
+    Assert.assertFalse(RESPONSE.matches("\"other\", W/\"more\""));
+    // The quotes are part of the tag.
+    Assert.assertFalse(RESPONSE.matches(etag.substring(1, etag.length() - 1)));
+  }
+
+  @Test
+  public void sendsBodyWithEtag() throws IOException {
+    FakeHttp.Response response = new FakeHttp.Response();
+
+    RESPONSE.send(new FakeHttp.Request().toServletRequest(), response.toServletResponse());
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals(RESPONSE.getEtag(), response.getHeader("ETag"));
+    Assert.assertEquals("no-cache", response.getHeader("Cache-Control"));
+    Assert.assertEquals("[\"a\",\"b\"]", response.getBody());
+  }
+
+  @Test
+  public void sendsNotModifiedWithoutBodyWhenTagMatches() throws IOException {
+    FakeHttp.Response response = new FakeHttp.Response();
+
+    RESPONSE.send(
+        new FakeHttp.Request().withHeader("If-None-Match", "W/" + RESPONSE.getEtag())
+            .toServletRequest(),
+        response.toServletResponse());
+
+    Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+    Assert.assertEquals(RESPONSE.getEtag(), response.getHeader("ETag"));
+    Assert.assertEquals("", response.getBody());
+  }
+}
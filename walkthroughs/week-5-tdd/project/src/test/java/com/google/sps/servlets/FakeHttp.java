@@ -0,0 +1,219 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Minimal in-memory stand-ins for the servlet container, so that servlets can be tested without
+ * one. Only the methods the servlets of this app call are implemented; every other method returns
+ * null, false or 0.
+ */
+final class FakeHttp {
+  private FakeHttp() {
+    // Disallow instances.
+  }
+
+  /** Returns a servlet config whose context keeps attributes in a map. */
+  static ServletConfig newConfig() {
+    Map<String, Object> attributes = new HashMap<>();
+    ServletContext context = proxy(ServletContext.class, (method, args) -> {
+      switch (method) {
+        case "getAttribute":
+          return attributes.get((String) args[0]);
+        case "setAttribute":
+          attributes.put((String) args[0], args[1]);
+          return null;
+        default:
+          return null;
+      }
+    });
+    return proxy(ServletConfig.class, (method, args) -> {
+      switch (method) {
+        case "getServletContext":
+          return context;
+        case "getServletName":
+          return "test";
+        default:
+          return null;
+      }
+    });
+  }
+
+  /** A request with a body, parameters and headers. */
+  static final class Request {
+    private final Map<String, String> parameters = new HashMap<>();
+    private final Map<String, String> headers = new HashMap<>();
+    private byte[] body = new byte[0];
+
+    Request withBody(String body) {
+      this.body = body.getBytes(StandardCharsets.UTF_8);
+      return this;
+    }
+
+    Request withParameter(String name, String value) {
+      parameters.put(name, value);
+      return this;
+    }
+
+    Request withHeader(String name, String value) {
+      headers.put(name, value);
+      return this;
+    }
+
+    HttpServletRequest toServletRequest() {
+      ByteArrayInputStream in = new ByteArrayInputStream(body);
+      return proxy(HttpServletRequest.class, (method, args) -> {
+        switch (method) {
+          case "getParameter":
+            return parameters.get((String) args[0]);
+          case "getHeader":
+            return headers.get((String) args[0]);
+          case "getReader":
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+          case "getInputStream":
+            return new ServletInputStream() {
+              @Override
+              public int read() {
+                return in.read();
+              }
+
+              @Override
+              public boolean isFinished() {
+                return in.available() == 0;
+              }
+
+              @Override
+              public boolean isReady() {
+                return true;
+              }
+
+              @Override
+              public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+              }
+            };
+          default:
+            return null;
+        }
+      });
+    }
+  }
+
+  /** A response that records its status, headers and body. */
+  static final class Response {
+    private final Map<String, String> headers = new HashMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private int status = HttpServletResponse.SC_OK;
+    private boolean committed;
+
+    int getStatus() {
+      return status;
+    }
+
+    String getHeader(String name) {
+      return headers.get(name);
+    }
+
+    String getBody() {
+      return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** Returns whether anything was written before an error was sent. */
+    boolean isCommittedBeforeError() {
+      return committed;
+    }
+
+    HttpServletResponse toServletResponse() {
+      ServletOutputStream out = new ServletOutputStream() {
+        @Override
+        public void write(int b) {
+          body.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+          throw new UnsupportedOperationException();
+        }
+      };
+      return proxy(HttpServletResponse.class, (method, args) -> {
+        switch (method) {
+          case "setHeader":
+            headers.put((String) args[0], (String) args[1]);
+            return null;
+          case "setContentType":
+            headers.put("Content-Type", (String) args[0]);
+            return null;
+          case "setStatus":
+            status = (Integer) args[0];
+            return null;
+          case "sendError":
+            committed = body.size() > 0;
+            status = (Integer) args[0];
+            return null;
+          case "getOutputStream":
+            return out;
+          case "getWriter":
+            return new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), true);
+          default:
+            return null;
+        }
+      });
+    }
+  }
+
+  private interface Handler {
+    Object invoke(String method, Object[] args) throws Exception;
+  }
+
+  private static <T> T proxy(Class<T> type, Handler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> {
+          Object result = handler.invoke(method.getName(), args);
+          if (result == null && method.getReturnType() == boolean.class) {
+            return false;
+          }
+          if (result == null && method.getReturnType() == int.class) {
+            return 0;
+          }
+          if (result == null && method.getReturnType() == long.class) {
+            return 0L;
+          }
+          return result;
+        }));
+  }
+}
@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class GetEventsServletTest {
+  @Test
+  public void listsEverythingQueriesSeeOnFirstDay() throws IOException, ServletException {
+    GetEventsServlet servlet = new GetEventsServlet();
+    servlet.init(FakeHttp.newConfig());
+    FakeHttp.Response response = new FakeHttp.Response();
+
+    servlet.doGet(new FakeHttp.Request().toServletRequest(), response.toServletResponse());
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    String body = response.getBody();
+    // An event of the store.
+    Assert.assertTrue(body.contains("\"title\":\"Work Trip Planning\""));
+    // The first stand-up, but not the first weekly 1:1, which is on the second day.
+    Assert.assertTrue(
+        body.contains("\"title\":\"Daily Stand-up\",\"when\":{\"start\":570,\"duration\":15}"));
+    Assert.assertFalse(body.contains("Weekly 1:1"));
+    // Liam's time before and after his working hours.
+    Assert.assertTrue(body.contains("\"title\":\"Outside working hours\","
+        + "\"when\":{\"start\":0,\"duration\":540},\"attendees\":[\"Liam\"]"));
+    Assert.assertTrue(body.contains("\"title\":\"Outside working hours\","
+        + "\"when\":{\"start\":1020,\"duration\":420},\"attendees\":[\"Liam\"]"));
+  }
+}
@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.HorizonCalendar;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonQueryServletTest {
+  // The demo data has no events, recurring events or working hours under this name.
+  private static final String PERSON_A = "Person A";
+  private static final String REQUEST =
+      "{\"attendees\":[\"" + PERSON_A + "\"],\"duration\":60,\"limit\":2}";
+
+  private HorizonQueryServlet servlet;
+
+  @Before
+  public void setUp() throws ServletException {
+    ServletConfig config = FakeHttp.newConfig();
+    // Person A has lunch at noon on the first two days.
+    SharedEventStore.get(config.getServletContext()).update(Arrays.asList(
+        new Event("Lunch", TimeRange.fromStartDuration(
+            HorizonCalendar.getTimeInMinutes(0, 12, 0), 60), Arrays.asList(PERSON_A)),
+        new Event("Lunch", TimeRange.fromStartDuration(
+            HorizonCalendar.getTimeInMinutes(1, 12, 0), 60), Arrays.asList(PERSON_A))),
+        Arrays.asList());
+    servlet = new HorizonQueryServlet();
+    servlet.init(config);
+  }
+
+  @Test
+  public void usesLimitOfRequest() throws IOException {
+    FakeHttp.Response response = post(new FakeHttp.Request().withParameter("days", "3"), REQUEST);
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals(
+        "[{\"start\":0,\"duration\":720},{\"start\":780,\"duration\":1380}]", response.getBody());
+  }
+
+  @Test
+  public void limitParameterOverridesRequest() throws IOException {
+    FakeHttp.Response response = post(
+        new FakeHttp.Request().withParameter("days", "3").withParameter("limit", "1"), REQUEST);
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals("[{\"start\":0,\"duration\":720}]", response.getBody());
+  }
+
+  @Test
+  public void rejectsMalformedAndEmptyBodies() throws IOException {
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST,
+        post(new FakeHttp.Request(), "{\"attendees\":").getStatus());
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST,
+        post(new FakeHttp.Request(), "").getStatus());
+  }
+
+  @Test
+  public void rejectsDaysAndLimitsOutOfRange() throws IOException {
+    String[][] parameters = {
+        {"days", "0"}, {"days", String.valueOf(HorizonCalendar.MAX_DAYS + 1)},
+        {"days", "many"}, {"limit", "0"}, {"limit", "-1"}};
+    for (String[] parameter : parameters) {
+      FakeHttp.Response response =
+          post(new FakeHttp.Request().withParameter(parameter[0], parameter[1]), REQUEST);
+
+      Assert.assertEquals(parameter[0] + "=" + parameter[1],
+          HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+      Assert.assertEquals("", response.getBody());
+    }
+  }
+
+  private FakeHttp.Response post(FakeHttp.Request request, String body) throws IOException {
+    FakeHttp.Response response = new FakeHttp.Response();
+    servlet.doPost(request.withBody(body).toServletRequest(), response.toServletResponse());
+    return response;
+  }
+}
@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import com.google.sps.VersionedEventStore;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ImportEventsServletTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final Event EVENT_1 =
+      new Event("Event 1", TimeRange.fromStartDuration(480, 30), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event(
+      "Event 2", TimeRange.fromStartDuration(600, 60), Arrays.asList(PERSON_A, PERSON_B));
+  private static final String NDJSON =
+      "{\"title\":\"Event 1\",\"when\":{\"start\":480,\"duration\":30},"
+      + "\"attendees\":[\"Person A\"]}\n"
+      + "{\"title\":\"Event 2\",\"when\":{\"start\":600,\"duration\":60},"
+      + "\"attendees\":[\"Person A\",\"Person B\"]}\n";
+
+  private VersionedEventStore eventStore;
+  private ImportEventsServlet servlet;
+
+  @Before
+  public void setUp() throws ServletException {
+    ServletConfig config = FakeHttp.newConfig();
+    eventStore = SharedEventStore.get(config.getServletContext());
+    servlet = new ImportEventsServlet();
+    servlet.init(config);
+  }
+
+  @Test
+  public void addsEventsInOneVersion() throws IOException {
+    int eventCount = eventStore.snapshot().getEvents().size();
+    long version = eventStore.snapshot().getVersion();
+
+    FakeHttp.Response response = post(new FakeHttp.Request(), NDJSON);
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals("{\"imported\":2,\"version\":" + (version + 1) + "}", response.getBody());
+    List<Event> events = eventStore.snapshot().getEvents();
+    Assert.assertEquals(eventCount + 2, events.size());
+    Assert.assertTrue(events.containsAll(Arrays.asList(EVENT_1, EVENT_2)));
+  }
+
+  @Test
+  public void replacesEveryEvent() throws IOException {
+    FakeHttp.Response response =
+        post(new FakeHttp.Request().withParameter("replace", "true"), NDJSON);
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    List<Event> events = eventStore.snapshot().getEvents();
+    Assert.assertEquals(2, events.size());
+    Assert.assertTrue(events.containsAll(Arrays.asList(EVENT_1, EVENT_2)));
+  }
+
+  @Test
+  public void rejectsOverflowingEventAndKeepsStore() throws IOException {
+    VersionedEventStore.Snapshot before = eventStore.snapshot();
+    String overflowing = "{\"title\":\"Forever\",\"when\":{\"start\":2000000000,"
+        + "\"duration\":500000000},\"attendees\":[\"Person A\"]}\n";
+
+    FakeHttp.Response response =
+        post(new FakeHttp.Request().withParameter("replace", "true"), NDJSON + overflowing);
+
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+    Assert.assertSame(before, eventStore.snapshot());
+  }
+
+  private FakeHttp.Response post(FakeHttp.Request request, String body) throws IOException {
+    FakeHttp.Response response = new FakeHttp.Response();
+    servlet.doPost(request.withBody(body).toServletRequest(), response.toServletResponse());
+    return response;
+  }
+}
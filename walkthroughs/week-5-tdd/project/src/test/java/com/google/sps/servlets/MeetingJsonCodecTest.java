@@ -0,0 +1,160 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingJsonCodecTest {
+  @Test
+  public void readsMeetingRequest() throws IOException {
+    String json = "{\"attendees\":[\"A\",\"B\"],\"optional_attendees\":[\"C\"],"
+        + "\"duration\":30,\"unknown\":{\"x\":[1]}}";
+
+    MeetingRequest request = MeetingJsonCodec.readMeetingRequest(reader(json));
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList("A", "B")),
+        new HashSet<>(request.getAttendees()));
+    Assert.assertEquals(
+        Arrays.asList("C"), Arrays.asList(request.getOptionalAttendees().toArray()));
+    Assert.assertEquals(30, request.getDuration());
+  }
+
+  @Test
+  public void missingAttendeesAreEmpty() throws IOException {
+    MeetingRequest request =
+        MeetingJsonCodec.readMeetingRequest(reader("{\"optional_attendees\":null,\"duration\":5}"));
+
+    Assert.assertTrue(request.getAttendees().isEmpty());
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+  }
+
+  @Test
+  public void readsArrayOfRequests() throws IOException {
+    List<MeetingRequest> requests = MeetingJsonCodec.readMeetingRequests(
+        reader("[{\"attendees\":[\"A\"],\"duration\":10},{\"duration\":20}]"));
+
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(20, requests.get(1).getDuration());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void rejectsWrongTypes() throws IOException {
+    MeetingJsonCodec.readMeetingRequest(reader("{\"duration\":\"long\"}"));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void rejectsNegativeDuration() throws IOException {
+    MeetingJsonCodec.readMeetingRequest(reader("{\"duration\":-30}"));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void rejectsEmptyBody() throws IOException {
+    MeetingJsonCodec.readMeetingRequest(reader(""));
+  }
+
+  @Test
+  public void writesTimeRangesLikeGson() throws IOException {
+    List<TimeRange> times = Arrays.asList(
+        TimeRange.fromStartDuration(0, 30), TimeRange.fromStartEnd(600, 1440, false));
+    StringWriter json = new StringWriter();
+
+    JsonWriter writer = new JsonWriter(json);
+    MeetingJsonCodec.writeTimeRanges(writer, times);
+    writer.flush();
+
+    Assert.assertEquals(new Gson().toJson(times), json.toString());
+  }
+
+  @Test
+  public void readsEventsLikeGson() throws IOException {
+    List<Event> expected = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(480, 30), Arrays.asList("A", "B")),
+        new Event("Event 2", TimeRange.fromStartDuration(600, 60), Arrays.asList("B")));
+    Gson gson = new Gson();
+    String ndjson = gson.toJson(expected.get(0)) + "\n\n" + gson.toJson(expected.get(1)) + "\n";
+
+    List<Event> events = new ArrayList<>();
+    int count = MeetingJsonCodec.readEvents(reader(ndjson), events::add);
+
+    Assert.assertEquals(2, count);
+    Assert.assertEquals(expected, events);
+    // Every event of an attendee shares one interned name.
+    String first = events.get(0).getAttendees().stream()
+        .filter("B"::equals).findFirst().get();
+    String second = events.get(1).getAttendees().iterator().next();
+    Assert.assertSame(first, second);
+  }
+
+  @Test
+  public void emptyEventStreamHasNoEvents() throws IOException {
+    List<Event> events = new ArrayList<>();
+
+    Assert.assertEquals(0, MeetingJsonCodec.readEvents(reader(" \n"), events::add));
+    Assert.assertEquals(Collections.emptyList(), events);
+  }
+
+  @Test
+  public void rejectsInvalidEventWithItsNumber() throws IOException {
+    String ndjson = "{\"when\":{\"start\":0,\"duration\":30}}\n{\"title\":\"No time\"}\n";
+
+    List<Event> events = new ArrayList<>();
+
+    try {
+      MeetingJsonCodec.readEvents(reader(ndjson), events::add);
+      Assert.fail();
+    } catch (JsonParseException e) {
+      Assert.assertEquals("Event 2 is invalid", e.getMessage());
+    }
+    Assert.assertEquals(1, events.size());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void rejectsEventEndingPastLargestInt() throws IOException {
+    String ndjson = "{\"when\":{\"start\":2000000000,\"duration\":500000000}}";
+
+    MeetingJsonCodec.readEvents(reader(ndjson), event -> {});
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void rejectsEventStartingBeforeFirstDay() throws IOException {
+    String ndjson = "{\"when\":{\"start\":-30,\"duration\":30}}";
+
+    MeetingJsonCodec.readEvents(reader(ndjson), event -> {});
+  }
+
+  private static JsonReader reader(String json) {
+    return new JsonReader(new StringReader(json));
+  }
+}
@@ -0,0 +1,45 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryServletTest {
+  @Test
+  public void queriesSkipStandUpAndTimeOutsideWorkingHours() throws IOException, ServletException {
+    // Liam works from 9:00 to 17:00 and has the daily stand-up from 9:30 to 9:45, on top of his
+    // events at 10:00, from 12:00 to 14:30 and from 14:30 to 15:30.
+    QueryServlet servlet = new QueryServlet();
+    servlet.init(FakeHttp.newConfig());
+    FakeHttp.Response response = new FakeHttp.Response();
+
+    servlet.doPost(
+        new FakeHttp.Request().withBody("{\"attendees\":[\"Liam\"],\"duration\":15}")
+            .toServletRequest(),
+        response.toServletResponse());
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals("[{\"start\":540,\"duration\":30},{\"start\":585,\"duration\":15},"
+        + "{\"start\":630,\"duration\":90},{\"start\":930,\"duration\":90}]", response.getBody());
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RankedQueryServletTest {
+  // Liam is free from 9:00 to 9:30, from 9:45 to 10:00, from 10:30 to 12:00 and from 15:30 to
+  // 17:00, once his events, the stand-up and his working hours are taken into account.
+  private static final String REQUEST = "{\"attendees\":[\"Liam\"],\"duration\":30,\"limit\":2}";
+
+  private RankedQueryServlet servlet;
+
+  @Before
+  public void setUp() throws ServletException {
+    servlet = new RankedQueryServlet();
+    servlet.init(FakeHttp.newConfig());
+  }
+
+  @Test
+  public void ranksByDistanceToPreferredStart() throws IOException {
+    FakeHttp.Response response = post(new FakeHttp.Request()
+        .withParameter("policy", "closest_to").withParameter("preferred", "600"), REQUEST);
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertEquals(
+        "[{\"start\":630,\"duration\":30},{\"start\":645,\"duration\":30}]", response.getBody());
+  }
+
+  @Test
+  public void rejectsStepsOutsideDay() throws IOException {
+    for (String step : new String[] {"0", "-15", "1441", "often"}) {
+      FakeHttp.Response response =
+          post(new FakeHttp.Request().withParameter("step", step), REQUEST);
+
+      Assert.assertEquals("step=" + step, HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+    }
+  }
+
+  @Test
+  public void rejectsMissingOrInvalidPreferredStart() throws IOException {
+    for (String preferred : new String[] {null, "-1", "1440", "noon"}) {
+      FakeHttp.Request request = new FakeHttp.Request().withParameter("policy", "closest_to");
+      if (preferred != null) {
+        request.withParameter("preferred", preferred);
+      }
+
+      Assert.assertEquals("preferred=" + preferred,
+          HttpServletResponse.SC_BAD_REQUEST, post(request, REQUEST).getStatus());
+    }
+  }
+
+  @Test
+  public void rejectsUnknownPolicies() throws IOException {
+    FakeHttp.Response response =
+        post(new FakeHttp.Request().withParameter("policy", "latest"), REQUEST);
+
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatus());
+  }
+
+  private FakeHttp.Response post(FakeHttp.Request request, String body) throws IOException {
+    FakeHttp.Response response = new FakeHttp.Response();
+    servlet.doPost(request.withBody(body).toServletRequest(), response.toServletResponse());
+    return response;
+  }
+}
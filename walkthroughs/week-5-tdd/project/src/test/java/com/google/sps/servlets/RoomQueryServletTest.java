@@ -0,0 +1,63 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RoomQueryServletTest {
+  // Cirrus is booked from 9:00 to 10:00 in Rooms.
+  private static final String CIRRUS = "\"room\":{\"name\":\"Cirrus\",\"capacity\":12}";
+
+  @Test
+  public void bookedRoomsAreNotOffered() throws IOException, ServletException {
+    RoomQueryServlet servlet = new RoomQueryServlet();
+    servlet.init(FakeHttp.newConfig());
+    FakeHttp.Response response = new FakeHttp.Response();
+
+    servlet.doPost(
+        new FakeHttp.Request().withBody("{\"attendees\":[\"Nobody\"],\"duration\":60}")
+            .toServletRequest(),
+        response.toServletResponse());
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    String body = response.getBody();
+    Assert.assertTrue(body.contains("{\"when\":{\"start\":0,\"duration\":540}," + CIRRUS + "}"));
+    Assert.assertTrue(body.contains("{\"when\":{\"start\":600,\"duration\":840}," + CIRRUS + "}"));
+    Assert.assertFalse(body.contains("\"duration\":1440}," + CIRRUS));
+  }
+
+  @Test
+  public void roomBookingsAreNotListedAsEvents() throws IOException, ServletException {
+    ServletConfig config = FakeHttp.newConfig();
+    new RoomQueryServlet().init(config);
+    GetEventsServlet servlet = new GetEventsServlet();
+    servlet.init(config);
+    FakeHttp.Response response = new FakeHttp.Response();
+
+    servlet.doGet(new FakeHttp.Request().toServletRequest(), response.toServletResponse());
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+    Assert.assertFalse(response.getBody().contains("Cirrus"));
+  }
+}